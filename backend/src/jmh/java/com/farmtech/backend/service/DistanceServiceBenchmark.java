@@ -0,0 +1,96 @@
+package com.farmtech.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar {@link DistanceService#distanceInKm} per point against the batch methods the owner index
+ * uses, over owners spread across Karnataka and a booking location in the middle of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceServiceBenchmark {
+
+    private static final double ORIGIN_LAT = 15.3;
+    private static final double ORIGIN_LON = 76.0;
+
+    @Param({"1000", "10000", "100000"})
+    public int points;
+
+    @Param({"50"})
+    public double radiusKm;
+
+    private final DistanceService distanceService = new DistanceService();
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] cosLatitudes;
+    private double[] distancesKm;
+    private int[] indexes;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        latitudes = new double[points];
+        longitudes = new double[points];
+        cosLatitudes = new double[points];
+        for (int i = 0; i < points; i++) {
+            latitudes[i] = random.nextDouble(11.5, 18.5);
+            longitudes[i] = random.nextDouble(74.0, 78.5);
+            cosLatitudes[i] = DistanceService.cosLatitude(latitudes[i]);
+        }
+        distancesKm = new double[points];
+        indexes = new int[points];
+    }
+
+    @Benchmark
+    public void scalarDistances(Blackhole blackhole) {
+        for (int i = 0; i < points; i++) {
+            blackhole.consume(distanceService.distanceInKm(ORIGIN_LAT, ORIGIN_LON, latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] batchDistances() {
+        distanceService.distancesInKm(ORIGIN_LAT, ORIGIN_LON, latitudes, longitudes, cosLatitudes, points, distancesKm);
+        return distancesKm;
+    }
+
+    // What the owner index did before withinRadius: an exact distance for every point, then the radius check
+    @Benchmark
+    public int scalarWithinRadius() {
+        int found = 0;
+        for (int i = 0; i < points; i++) {
+            double distance = distanceService.distanceInKm(ORIGIN_LAT, ORIGIN_LON, latitudes[i], longitudes[i]);
+            if (distance <= radiusKm) {
+                indexes[found] = i;
+                distancesKm[found] = distance;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int withinRadius() {
+        return distanceService.withinRadius(ORIGIN_LAT, ORIGIN_LON, radiusKm,
+                latitudes, longitudes, cosLatitudes, points, indexes, distancesKm);
+    }
+}
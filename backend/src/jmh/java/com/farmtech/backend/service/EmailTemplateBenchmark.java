@@ -0,0 +1,66 @@
+package com.farmtech.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the booking request email the way EmailService does now and with the String.format body
+ * it replaced (kept in the test resources under {@code email-legacy/}). Run with {@code -prof gc}
+ * for bytes allocated per render: -Djmh.args="EmailTemplateBenchmark -prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private EmailTemplate template;
+    private String legacyFormat;
+
+    private final Long bookingId = 4821L;
+    private final String bookerName = "Anita Rao";
+    private final String bookerPhone = "9123456780";
+    private final String bookerEmail = "anita.rao@example.com";
+    private final String equipmentName = "Mahindra 575 DI Tractor";
+    private final String startDate = "2024-06-02";
+    private final Integer hours = 6;
+    private final String location = "Near Bus Stand, Dharwad, Karnataka";
+
+    @Setup
+    public void setUp() throws IOException {
+        template = EmailTemplate.load("booking-request-owner",
+                "bookingId", "bookerName", "bookerPhone", "bookerEmail", "equipmentName", "startDate", "hours", "location");
+        try (InputStream in = EmailTemplateBenchmark.class.getResourceAsStream("/email-legacy/booking-request-owner.txt")) {
+            if (in == null) {
+                throw new UncheckedIOException(new IOException("email-legacy/booking-request-owner.txt not on the classpath"));
+            }
+            legacyFormat = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public String template() {
+        return template.render(bookingId, bookerName, bookerPhone, bookerEmail, equipmentName, startDate, hours, location);
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        return String.format(legacyFormat, bookingId, bookerName, bookerPhone, bookerEmail, equipmentName, startDate, hours, location);
+    }
+}
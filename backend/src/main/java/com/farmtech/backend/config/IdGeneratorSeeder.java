@@ -0,0 +1,53 @@
+package com.farmtech.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Bookings and candidates take their ids from the id_generators table in blocks of 50.
+ * Databases that were populated while those tables used AUTO_INCREMENT need the generator
+ * rows moved past the existing ids before Hibernate hands out its first block.
+ */
+@Component
+public class IdGeneratorSeeder {
+
+    // Must match allocationSize on the @TableGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Generator row (pkColumnValue) -> table whose ids it allocates
+    private static final Map<String, String> GENERATED_TABLES = Map.of(
+            "bookings", "bookings",
+            "booking_candidates", "booking_candidates"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // EntityManagerFactory is injected only so this runs after Hibernate has created id_generators
+    public IdGeneratorSeeder(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void seed() {
+        GENERATED_TABLES.forEach((generator, table) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // Leave a full block of headroom: the pooled optimizer hands out ids below the stored value
+            long floor = (maxId != null ? maxId : 0L) + ALLOCATION_SIZE + 1;
+
+            Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM id_generators WHERE sequence_name = ?", Integer.class, generator);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)", generator, floor);
+                System.out.println("🔢 [IdGenerator] Seeded " + generator + " at " + floor);
+            } else if (jdbcTemplate.update(
+                    "UPDATE id_generators SET next_val = ? WHERE sequence_name = ? AND next_val < ?",
+                    floor, generator, floor) > 0) {
+                System.out.println("🔢 [IdGenerator] Advanced " + generator + " to " + floor);
+            }
+        });
+    }
+}
@@ -1,22 +1,40 @@
 package com.farmtech.backend.controller;
 
 import com.farmtech.backend.dto.AnalyticsResponse;
+import com.farmtech.backend.dto.AnalyticsSeriesResponse;
+import com.farmtech.backend.entity.User;
+import com.farmtech.backend.repository.UserRepository;
 import com.farmtech.backend.service.BookingAnalyticsService;
+import com.farmtech.backend.service.BookingAnalyticsService.Granularity;
+import com.farmtech.backend.service.LatencyStatsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/analytics")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
 public class AnalyticsController {
 
     private final BookingAnalyticsService bookingAnalyticsService;
+    private final LatencyStatsService latencyStatsService;
+    private final UserRepository userRepository;
 
-    public AnalyticsController(BookingAnalyticsService bookingAnalyticsService) {
+    public AnalyticsController(BookingAnalyticsService bookingAnalyticsService,
+                               LatencyStatsService latencyStatsService,
+                               UserRepository userRepository) {
         this.bookingAnalyticsService = bookingAnalyticsService;
+        this.latencyStatsService = latencyStatsService;
+        this.userRepository = userRepository;
     }
 
     @GetMapping("/global")
@@ -28,4 +46,59 @@ public class AnalyticsController {
     public AnalyticsResponse getFarmerAnalytics(@PathVariable Long farmerId) {
         return bookingAnalyticsService.getFarmerAnalytics(farmerId);
     }
-}
\ No newline at end of file
+
+    // Time series from the daily rollups, e.g.
+    // /api/analytics/series?granularity=WEEK&from=2025-01-01&to=2025-03-31&farmerId=7
+    // Defaults: the last 30 days, 12 weeks or 12 months up to today, platform-wide.
+    @GetMapping("/series")
+    public ResponseEntity<?> getSeries(@RequestParam(defaultValue = "DAY") String granularity,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                       @RequestParam(required = false) Long farmerId) {
+        Granularity bucket;
+        try {
+            bucket = Granularity.valueOf(granularity.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unsupported granularity: " + granularity + " (use day, week or month)");
+        }
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : switch (bucket) {
+            case DAY -> end.minusDays(29);
+            case WEEK -> end.minusWeeks(11);
+            case MONTH -> end.minusMonths(11);
+        };
+        try {
+            AnalyticsSeriesResponse series = bookingAnalyticsService.getSeries(bucket, start, end, farmerId);
+            return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // p50/p90/p99 (seconds) of time to confirm and of owner response time, from in-memory histograms
+    @GetMapping("/latency")
+    public LatencyStatsService.LatencyReport getLatency() {
+        return latencyStatsService.getReport();
+    }
+
+    @GetMapping("/latency/owner/{ownerId}")
+    public ResponseEntity<?> getOwnerLatency(@PathVariable Long ownerId) {
+        LatencyStatsService.LatencySummary summary = latencyStatsService.getOwnerResponse(ownerId);
+        if (summary == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No responses recorded for owner " + ownerId);
+        }
+        return ResponseEntity.ok(summary);
+    }
+
+    // Recompute the rollups from the bookings table (ADMIN ONLY), e.g. after editing bookings by hand
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild(@RequestParam Long userId) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null || !"ADMIN".equals(user.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Access denied. Only administrators can rebuild analytics.");
+        }
+        return ResponseEntity.ok(bookingAnalyticsService.rebuild());
+    }
+}
@@ -5,12 +5,15 @@ import com.farmtech.backend.entity.User;
 import com.farmtech.backend.repository.FarmerRepository;
 import com.farmtech.backend.repository.UserRepository;
 import com.farmtech.backend.service.EmailService;
+import com.farmtech.backend.service.FarmerIdentityService;
+import com.farmtech.backend.service.OwnerLocationIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 
 @RestController
@@ -27,6 +30,12 @@ public class AuthController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private OwnerLocationIndex ownerLocationIndex;
+
+    @Autowired
+    private FarmerIdentityService farmerIdentityService;
+
     // ✅ Register User (Admin, Renter, Owner)
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody Map<String, Object> request) {
@@ -80,6 +89,7 @@ public class AuthController {
         
         User savedUser = userRepository.save(user);
         System.out.println("✅ [AuthController] User saved with ID: " + savedUser.getId() + ", Email: " + savedUser.getEmail());
+        farmerIdentityService.evictUser(savedUser.getId());
         
         // For OWNER role, also create a Farmer record (for equipment ownership)
         Long farmerId = null;
@@ -104,6 +114,7 @@ public class AuthController {
                 farmerId = savedFarmer.getId();
                 System.out.println("✅ Created new Farmer ID: " + farmerId + " for OWNER registration");
             }
+            ownerLocationIndex.refreshOwner(savedUser);
         }
         
         Map<String, Object> response = new HashMap<>();
@@ -130,6 +141,7 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("message", "Email already registered"));
         }
         Farmer savedFarmer = farmerRepository.save(farmer);
+        ownerLocationIndex.refreshFarmer(savedFarmer);
         return ResponseEntity.ok(Map.of(
                 "message", "Registration successful",
                 "farmerId", savedFarmer.getId()
@@ -173,7 +185,16 @@ public class AuthController {
         
         System.out.println("🔑 [OTP DEBUG] Generated OTP: " + otp + " for user: " + user.getEmail());
 
-        emailService.sendOtpEmail(user.getEmail(), otp);
+        // Sent in the background; only an immediate rejection (queue full, no mail sender, send failed at once) is known here
+        CompletableFuture<Boolean> sent = emailService.sendOtpEmail(user.getEmail(), otp);
+        if (sent.isCompletedExceptionally()) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("message", "Email service is busy, please try again in a moment"));
+        }
+        if (Boolean.FALSE.equals(sent.getNow(null))) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("message", "Could not send the OTP email, please try again in a moment"));
+        }
 
         Map<String, Object> maskedEmail = maskEmail(user.getEmail());
         Map<String, Object> response = new HashMap<>();
@@ -243,15 +264,14 @@ public class AuthController {
     }
 
     private ResponseEntity<?> createUserLoginResponse(User user) {
-        Optional<Farmer> farmerOpt = farmerRepository.findByPhone(user.getPhone());
+        FarmerIdentityService.FarmerIdentity identity = farmerIdentityService.resolve(user);
         Long farmerId = null;
         String farmerAddress = user.getAddress();
 
-        if (farmerOpt.isPresent()) {
-            Farmer farmer = farmerOpt.get();
-            farmerId = farmer.getId();
-            if (farmer.getAddress() != null) {
-                farmerAddress = farmer.getAddress();
+        if (identity.farmerId() != null) {
+            farmerId = identity.farmerId();
+            if (identity.farmerAddress() != null) {
+                farmerAddress = identity.farmerAddress();
             }
             System.out.println("✅ Login: Found Farmer ID " + farmerId + " for user " + user.getName());
         } else if ("OWNER".equals(user.getRole()) || "ADMIN".equals(user.getRole())) {
@@ -268,6 +288,8 @@ public class AuthController {
             Farmer savedFarmer = farmerRepository.save(newFarmer);
             farmerId = savedFarmer.getId();
             System.out.println("✅ Login: Created Farmer ID " + farmerId + " for OWNER user " + user.getName());
+            farmerIdentityService.evictUser(user.getId());
+            ownerLocationIndex.refreshOwner(user);
         }
 
         Map<String, Object> response = new HashMap<>();
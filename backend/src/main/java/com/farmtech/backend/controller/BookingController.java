@@ -12,15 +12,25 @@ import com.farmtech.backend.repository.EquipmentRepository;
 import com.farmtech.backend.repository.FarmerRepository;
 import com.farmtech.backend.repository.UserRepository;
 import com.farmtech.backend.service.BookingAnalyticsService;
+import com.farmtech.backend.service.BookingPushService;
+import com.farmtech.backend.service.BookingRollupService;
 import com.farmtech.backend.service.CandidateDispatchService;
-import com.farmtech.backend.service.DistanceService;
+import com.farmtech.backend.service.FarmerIdentityService;
+import com.farmtech.backend.service.FarmerIdentityService.FarmerIdentity;
+import com.farmtech.backend.service.LatencyStatsService;
+import com.farmtech.backend.service.NotificationOutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -49,18 +59,29 @@ public class BookingController {
     @Autowired
     private com.farmtech.backend.service.EmailService emailService;
 
-    @Autowired
-    private DistanceService distanceService;
-
     @Autowired
     private BookingCandidateRepository candidateRepository;
 
     @Autowired
     private CandidateDispatchService candidateDispatchService;
 
-    private static final double SEARCH_RADIUS_KM = 50.0;
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private BookingPushService bookingPushService;
+
+    @Autowired
+    private FarmerIdentityService farmerIdentityService;
+
+    @Autowired
+    private BookingRollupService bookingRollupService;
+
+    @Autowired
+    private LatencyStatsService latencyStatsService;
 
     // Create a booking: renter books an equipment (owner inferred from equipment)
+    @Transactional
     @PostMapping("/create")
     public Booking createBooking(@RequestParam Long equipmentId,
                                  @RequestParam Long renterId,
@@ -160,6 +181,7 @@ public class BookingController {
         booking.setCreatedAt(LocalDateTime.now());
         
         Booking saved = bookingRepo.save(booking);
+        bookingRollupService.recordTransition(null, BookingRollupService.Snapshot.of(saved));
         System.out.println("💾 Booking saved with ID: " + saved.getId());
         System.out.println("   Saved latitude: " + saved.getLocationLatitude());
         System.out.println("   Saved longitude: " + saved.getLocationLongitude());
@@ -167,187 +189,52 @@ public class BookingController {
         System.out.println("   Renter email from saved booking: " + saved.getRenter().getEmail());
 
         // create candidate list for other nearby owners
-        createCandidateEntries(saved);
+        candidateDispatchService.inviteOwners(saved);
 
-        // Send SMS notification to renter only (owner flow is sequential)
-        try {
-            String renterPhone = renter.getPhone();
+        // Notifications are written to the outbox in this transaction and delivered in the background
+        String renterPhone = renter.getPhone();
+        if (renterPhone != null && !renterPhone.isBlank()) {
             String renterMsg = String.format(
                     "You booked %s. Start %s, Hours %s. Booking ID %s.",
                     equipment.getName(), startDate, (hours != null ? hours : "-"), saved.getId()
             );
-            if (renterPhone != null && !renterPhone.isBlank()) {
-                smsService.sendSms(renterPhone, renterMsg);
-            }
-        } catch (Exception ignore) {}
+            notificationOutboxService.enqueueSms(renterPhone, renterMsg);
+        }
 
-        // Send email notification to booker
-        try {
-            System.out.println("\n\n╔════════════════════════════════════════════════════════════╗");
-            System.out.println("║  📧 ATTEMPTING TO SEND BOOKING CONFIRMATION EMAIL TO RENTER  ║");
-            System.out.println("╚════════════════════════════════════════════════════════════╝");
-            
-            // Re-fetch renter to ensure we have the latest email from DB if it was just created
-            Farmer freshRenter = farmerRepo.findById(renter.getId()).orElse(renter);
-            String renterEmail = freshRenter.getEmail();
-            String renterName = freshRenter.getName();
-            
-            System.out.println("Renter ID: " + freshRenter.getId());
-            System.out.println("Renter Name: " + renterName);
-            System.out.println("Renter Email: " + renterEmail);
-            System.out.println("Equipment: " + equipment.getName());
-            System.out.println("Booking ID: " + saved.getId());
-            System.out.println("Start Date: " + startDate);
-            System.out.println("Hours: " + hours);
-            System.out.flush();
-            
-            if (renterEmail == null || renterEmail.isBlank()) {
-                System.out.println("❌ ERROR: Renter email is NULL/BLANK - cannot send booking confirmation");
-                System.out.println("====================================================\n");
-                System.out.flush();
-            } else {
-                System.out.println("✅ Email is valid, calling emailService.sendBookingConfirmationToBooker()...");
-                System.out.flush();
-                emailService.sendBookingConfirmationToBooker(
-                    renterEmail, 
-                    renterName, 
-                    equipment.getName(), 
-                    startDate, 
-                    hours, 
-                    saved.getId()
-                );
-                System.out.println("✅✅✅ Email service method returned successfully");
-                System.out.println("====================================================\n");
-                System.out.flush();
-            }
-        } catch (Exception e) {
-            System.err.println("\n❌ ❌ ❌ EXCEPTION IN EMAIL SENDING ❌ ❌ ❌");
-            System.err.println("Exception Type: " + e.getClass().getName());
-            System.err.println("Message: " + e.getMessage());
-            System.err.println("Stack trace:");
-            e.printStackTrace();
-            System.err.flush();
+        if (renter.getEmail() == null || renter.getEmail().isBlank()) {
+            System.out.println("❌ ERROR: Renter email is NULL/BLANK - cannot send booking confirmation");
+        } else {
+            notificationOutboxService.enqueueBookingConfirmationToBooker(
+                renter.getEmail(),
+                renter.getName(),
+                equipment.getName(),
+                startDate,
+                hours,
+                saved.getId()
+            );
         }
 
-        // Send email notification to equipment owner
-        try {
-            Farmer owner = equipment.getOwner();
-            String ownerEmail = owner.getEmail();
-            String ownerName = owner.getName();
-            System.out.println("📧 [BookingController] Attempting to send new booking request email to owner...");
-            System.out.println("   Owner Email: " + ownerEmail);
-            System.out.println("   Owner Name: " + ownerName);
-            System.out.println("   Renter: " + renter.getName());
-            System.out.println("   Equipment: " + equipment.getName());
-            System.out.println("   Booking ID: " + saved.getId());
-            
-            if (ownerEmail == null || ownerEmail.isBlank()) {
-                System.out.println("❌ ERROR: Owner email is NULL/BLANK - cannot send owner notification");
-            } else {
-                emailService.sendBookingRequestToOwner(
-                    ownerEmail,
-                    ownerName,
-                    equipment.getName(),
-                    renter.getName(),
-                    renter.getPhone(),
-                    renter.getEmail(),
-                    location,
-                    startDate,
-                    hours,
-                    saved.getId()
-                );
-                System.out.println("✅ [BookingController] Owner notification email sent successfully");
-            }
-        } catch (Exception e) {
-            System.err.println("❌ [BookingController] Failed to send owner notification email: " + e.getMessage());
-            e.printStackTrace();
+        Farmer owner = equipment.getOwner();
+        if (owner.getEmail() == null || owner.getEmail().isBlank()) {
+            System.out.println("❌ ERROR: Owner email is NULL/BLANK - cannot send owner notification");
+        } else {
+            notificationOutboxService.enqueueBookingRequestToOwner(
+                owner.getEmail(),
+                owner.getName(),
+                equipment.getName(),
+                renter.getName(),
+                renter.getPhone(),
+                renter.getEmail(),
+                location,
+                startDate,
+                hours,
+                saved.getId()
+            );
         }
 
         return saved;
     }
 
-    private void createCandidateEntries(Booking booking) {
-        System.out.println("=== CREATING CANDIDATE ENTRIES ===");
-        System.out.println("Booking ID: " + booking.getId());
-        System.out.println("Creating candidates for OWNER role accounts only (no location restrictions)");
-
-        // NEW APPROACH: Start with Users who have OWNER role, then get/create their Farmer records
-        List<User> ownerUsers = userRepo.findByRole("OWNER");
-        System.out.println("Total OWNER users in database: " + ownerUsers.size());
-        
-        List<Farmer> potentialOwners = new ArrayList<>();
-        
-        for (User ownerUser : ownerUsers) {
-            System.out.println("Processing OWNER user: " + ownerUser.getId() + " (" + ownerUser.getName() + ")");
-            
-            // Find or create Farmer record for this OWNER user
-            Farmer farmer = farmerRepo.findByPhone(ownerUser.getPhone()).orElse(null);
-            
-            if (farmer == null) {
-                // Auto-create Farmer record for this OWNER user
-                System.out.println("  ⚠️ No Farmer record found, creating one...");
-                Farmer newFarmer = new Farmer();
-                newFarmer.setName(ownerUser.getName());
-                newFarmer.setEmail(ownerUser.getEmail());
-                newFarmer.setPhone(ownerUser.getPhone());
-                newFarmer.setPassword(ownerUser.getPassword());
-                newFarmer.setAddress(ownerUser.getAddress());
-                // Note: latitude/longitude will be null initially
-                farmer = farmerRepo.save(newFarmer);
-                System.out.println("  ✅ Created Farmer ID: " + farmer.getId() + " for OWNER User ID: " + ownerUser.getId());
-            } else {
-                System.out.println("  ✅ Found existing Farmer ID: " + farmer.getId());
-            }
-            
-            // Skip if this is the original equipment owner
-            if (farmer.getId().equals(booking.getOwner().getId())) {
-                System.out.println("  ⏭️ Skipping - this is the original equipment owner");
-                continue;
-            }
-            
-            potentialOwners.add(farmer);
-        }
-        
-        System.out.println("Potential OWNER accepter accounts: " + potentialOwners.size());
-
-        // Create candidates for ALL potential owners (no distance restriction)
-        List<BookingCandidate> candidates = potentialOwners.stream()
-                .map(owner -> {
-                    System.out.println("✅ Creating candidate for farmer " + owner.getId() + " (" + owner.getName() + ")");
-                    
-                    BookingCandidate candidate = new BookingCandidate();
-                    candidate.setBooking(booking);
-                    candidate.setOwner(owner);
-                    
-                    // Calculate distance if coordinates are available, otherwise set to 0
-                    if (booking.getLocationLatitude() != null && booking.getLocationLongitude() != null
-                            && owner.getLatitude() != null && owner.getLongitude() != null) {
-                        double distance = distanceService.distanceInKm(
-                                booking.getLocationLatitude(),
-                                booking.getLocationLongitude(),
-                                owner.getLatitude(),
-                                owner.getLongitude()
-                        );
-                        candidate.setDistanceKm(distance);
-                        System.out.println("   Distance: " + distance + " km");
-                    } else {
-                        candidate.setDistanceKm(0.0);
-                        System.out.println("   Distance: N/A (no coordinates)");
-                    }
-                    
-                    candidate.setStatus(CandidateStatus.NOTIFIED);
-                    candidate.setInvitedAt(LocalDateTime.now());
-                    return candidate;
-                })
-                .sorted(Comparator.comparing(BookingCandidate::getDistanceKm))
-                .collect(Collectors.toList());
-
-        System.out.println("Total candidates created: " + candidates.size());
-        candidateRepository.saveAll(candidates);
-        System.out.println("✅ Candidates saved to database");
-        candidateDispatchService.notifyCandidatesSimultaneously(booking.getId());
-    }
-
     private Double calculateTotalCost(Equipment equipment, int hours) {
         Double pricePerHour = equipment.getPricePerHour();
         if (pricePerHour == null) {
@@ -364,21 +251,12 @@ public class BookingController {
         System.out.println("Renter ID from path: " + renterId);
         
         // 🔍 Support both User and Farmer IDs
-        Long actualFarmerId = renterId;
-        
-        // Check if this is a User ID, and get their Farmer ID
-        User user = userRepo.findById(renterId).orElse(null);
-        if (user != null) {
-            System.out.println("✅ Found User with ID: " + renterId + ", looking for corresponding Farmer...");
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-                System.out.println("✅ Found corresponding Farmer ID: " + actualFarmerId);
-            } else {
-                System.out.println("⚠️ No Farmer record found for User ID: " + renterId);
-                return List.of(); // Return empty list if no Farmer record exists
-            }
+        FarmerIdentity identity = farmerIdentityService.resolve(renterId);
+        if (identity.missingFarmer()) {
+            System.out.println("⚠️ No Farmer record found for User ID: " + renterId);
+            return List.of(); // Return empty list if no Farmer record exists
         }
+        Long actualFarmerId = identity.farmerIdOrRequested();
         
         System.out.println("Querying: SELECT * FROM bookings WHERE renter_id = " + actualFarmerId);
         
@@ -409,21 +287,12 @@ public class BookingController {
         System.out.println("Owner ID from path: " + ownerId);
         
         // 🔍 Support both User and Farmer IDs
-        Long actualFarmerId = ownerId;
-        
-        // Check if this is a User ID, and get their Farmer ID
-        User user = userRepo.findById(ownerId).orElse(null);
-        if (user != null) {
-            System.out.println("✅ Found User with ID: " + ownerId + ", looking for corresponding Farmer...");
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-                System.out.println("✅ Found corresponding Farmer ID: " + actualFarmerId);
-            } else {
-                System.out.println("⚠️ No Farmer record found for User ID: " + ownerId);
-                return List.of(); // Return empty list if no Farmer record exists
-            }
+        FarmerIdentity identity = farmerIdentityService.resolve(ownerId);
+        if (identity.missingFarmer()) {
+            System.out.println("⚠️ No Farmer record found for User ID: " + ownerId);
+            return List.of(); // Return empty list if no Farmer record exists
         }
+        Long actualFarmerId = identity.farmerIdOrRequested();
         
         List<Booking> bookings = bookingRepo.findByOwnerId(actualFarmerId);
         System.out.println("Found " + bookings.size() + " bookings for owner " + actualFarmerId);
@@ -442,29 +311,29 @@ public class BookingController {
         return pendingBookings;
     }
     
-    // Get ALL bookings (for admin dashboard)
+    // Get ALL bookings (for admin dashboard), keyset-paged by id.
+    // Pass the X-Next-Cursor header value back as afterId to fetch the next page.
     @GetMapping
-    public List<Booking> getAllBookings() {
-        System.out.println("=== FETCHING ALL BOOKINGS (ADMIN) ===");
-        List<Booking> allBookings = bookingRepo.findAll();
-        System.out.println("Total bookings in database: " + allBookings.size());
-        
-        // Log booking status breakdown
-        long pending = allBookings.stream().filter(b -> "PENDING".equals(b.getStatus())).count();
-        long confirmed = allBookings.stream().filter(b -> "CONFIRMED".equals(b.getStatus())).count();
-        long completed = allBookings.stream().filter(b -> "COMPLETED".equals(b.getStatus())).count();
-        long cancelled = allBookings.stream().filter(b -> "CANCELLED".equals(b.getStatus())).count();
-        
-        System.out.println("Status breakdown:");
-        System.out.println("  PENDING: " + pending);
-        System.out.println("  CONFIRMED: " + confirmed);
-        System.out.println("  COMPLETED: " + completed);
-        System.out.println("  CANCELLED: " + cancelled);
-        
-        return allBookings;
+    public ResponseEntity<List<Booking>> getAllBookings(@RequestParam(required = false) Long afterId,
+                                                        @RequestParam(required = false) Integer limit) {
+        long cursor = KeysetPaging.afterId(afterId);
+        int pageSize = KeysetPaging.limit(limit);
+        System.out.println("=== FETCHING ALL BOOKINGS (ADMIN) afterId=" + cursor + ", limit=" + pageSize + " ===");
+
+        if (cursor == 0) {
+            // Log booking status breakdown once per listing, counted in the database
+            System.out.println("Status breakdown:");
+            for (Object[] row : bookingRepo.countGroupByStatus()) {
+                System.out.println("  " + row[0] + ": " + row[1]);
+            }
+        }
+
+        List<Booking> rows = bookingRepo.findPageAfter(cursor, KeysetPaging.probe(pageSize));
+        return KeysetPaging.respond(rows, pageSize, Booking::getId);
     }
 
     // Optional: update status (owner can confirm/cancel)
+    @Transactional
     @PatchMapping("/{bookingId}/status")
     public Booking updateStatus(@PathVariable Long bookingId, @RequestParam String status) {
         Booking b = bookingRepo.findById(bookingId)
@@ -475,6 +344,7 @@ public class BookingController {
             throw new RuntimeException("Cannot cancel booking after it has been accepted by an owner");
         }
 
+        BookingRollupService.Snapshot before = BookingRollupService.Snapshot.of(b);
         b.setStatus(status);
 
         // If confirming, set the accepted owner to current user
@@ -483,10 +353,14 @@ public class BookingController {
             // For now, we'll set it when the frontend provides the owner ID
         }
 
-        return bookingRepo.save(b);
+        Booking saved = bookingRepo.save(b);
+        // @Version makes the save fail if someone changed the row since it was read, so 'before' is accurate
+        bookingRollupService.recordTransition(before, BookingRollupService.Snapshot.of(saved));
+        return saved;
     }
     
     // Accept booking with owner details
+    @Transactional
     @PatchMapping("/{bookingId}/accept")
     public Booking acceptBooking(@PathVariable Long bookingId, @RequestParam Long ownerId) {
         System.out.println("=== ACCEPTING BOOKING ===");
@@ -494,122 +368,97 @@ public class BookingController {
         System.out.println("Owner ID: " + ownerId);
         
         try {
-            Booking booking = bookingRepo.findById(bookingId)
-                    .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + bookingId));
-            
-            System.out.println("Found booking: " + booking.getId() + ", Status: " + booking.getStatus());
-            
             Farmer acceptingOwner = farmerRepo.findById(ownerId)
                     .orElseThrow(() -> new RuntimeException("Owner not found with ID: " + ownerId));
             
             System.out.println("Found owner: " + acceptingOwner.getId() + ", Name: " + acceptingOwner.getName());
             
-            booking.setStatus("CONFIRMED");
-            booking.setAcceptedOwner(acceptingOwner);
-            booking.setConfirmedAt(java.time.LocalDateTime.now());
+            // Only the first accept flips accepted_owner_id from NULL; everyone after that gets a 409
+            java.time.LocalDateTime now = java.time.LocalDateTime.now();
+            if (!candidateDispatchService.confirmForOwner(bookingId, acceptingOwner, now)) {
+                if (!bookingRepo.existsById(bookingId)) {
+                    throw new RuntimeException("Booking not found with ID: " + bookingId);
+                }
+                System.out.println("⚠️ Booking " + bookingId + " was already accepted - rejecting owner " + ownerId);
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Booking is already confirmed with another owner");
+            }
             
             System.out.println("Updated booking status to CONFIRMED");
             
             // Update all other candidates for this booking to EXPIRED status
             // so they don't see this booking in their pending list anymore
-            List<BookingCandidate> allCandidates = candidateRepository.findByBookingId(bookingId);
-            System.out.println("Found " + allCandidates.size() + " candidates for this booking");
-            
-            for (BookingCandidate candidate : allCandidates) {
-                if (!candidate.getOwner().getId().equals(ownerId)) {
-                    candidate.setStatus(CandidateStatus.EXPIRED);
-                    candidate.setExpiredAt(java.time.LocalDateTime.now());
-                    System.out.println("Expired candidate for owner: " + candidate.getOwner().getId());
-                } else {
-                    candidate.setStatus(CandidateStatus.ACCEPTED);
-                    candidate.setAcceptedAt(java.time.LocalDateTime.now());
-                    System.out.println("Accepted candidate for owner: " + candidate.getOwner().getId());
-                }
-            }
-            candidateRepository.saveAll(allCandidates);
+            // Read before markOwnerAccepted moves the owner's invitation out of NOTIFIED
+            candidateRepository.findInvitedAt(bookingId, ownerId, CandidateStatus.NOTIFIED).stream().findFirst()
+                    .ifPresent(invitedAt -> latencyStatsService.recordOwnerResponse(ownerId, invitedAt, now));
+            int expired = candidateRepository.expireOtherCandidates(bookingId, ownerId, CandidateStatus.EXPIRED, now);
+            int accepted = candidateRepository.markOwnerAccepted(bookingId, ownerId, CandidateStatus.ACCEPTED, now);
+            System.out.println("Expired " + expired + " candidates, accepted " + accepted + " for owner: " + ownerId);
             
-            Booking savedBooking = bookingRepo.save(booking);
+            Booking booking = bookingRepo.findById(bookingId)
+                    .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + bookingId));
             System.out.println("✅ Booking accepted successfully!");
+            candidateDispatchService.afterAccepted(booking, ownerId);
             
-            // Send email notification to the booker (renter)
-            try {
-                System.out.println("\n\n╔═════════════════════════════════════════════════════════════╗");
-                System.out.println("║  📧 BOOKING ACCEPTANCE EMAIL - SENDING TO RENTER             ║");
-                System.out.println("╚═════════════════════════════════════════════════════════════╝");
-                
-                Farmer renter = booking.getRenter();
-                String renterEmail = renter.getEmail();
-                String renterName = renter.getName();
-                
-                System.out.println("Renter Email: " + renterEmail);
-                System.out.println("Renter Name: " + renterName);
-                System.out.println("Equipment: " + booking.getEquipment().getName());
-                System.out.println("Accepted by Owner: " + acceptingOwner.getName());
-                System.out.println("Owner Phone: " + acceptingOwner.getPhone());
-                System.out.println("Owner Email: " + acceptingOwner.getEmail());
-                System.out.println("Booking ID: " + booking.getId());
-                System.out.flush();
-                
-                if (renterEmail != null && !renterEmail.isBlank()) {
-                    System.out.println("✅ Renter email is valid, sending acceptance notification...");
-                    System.out.flush();
-                    
-                    emailService.sendBookingAcceptanceToBooker(
-                        renterEmail,
-                        renterName,
+            // Queue acceptance notifications; the outbox dispatcher delivers them after commit
+            Farmer renter = booking.getRenter();
+            String renterEmail = renter.getEmail();
+            if (renterEmail != null && !renterEmail.isBlank()) {
+                notificationOutboxService.enqueueBookingAcceptanceToBooker(
+                    renterEmail,
+                    renter.getName(),
+                    booking.getEquipment().getName(),
+                    acceptingOwner.getName(),
+                    acceptingOwner.getPhone(),
+                    booking.getId()
+                );
+            } else {
+                System.out.println("❌ ERROR: Renter email is NULL/BLANK - cannot send acceptance email");
+            }
+
+            // Also notify the renter's USER account email if it exists and is different
+            Optional<User> renterUserOpt = userRepo.findByPhone(renter.getPhone());
+            if (renterUserOpt.isPresent()) {
+                User renterUser = renterUserOpt.get();
+                String userEmail = renterUser.getEmail();
+                if (userEmail != null && !userEmail.isBlank() && !userEmail.equalsIgnoreCase(renterEmail)) {
+                    System.out.println("📧 Also notifying renter's USER account: " + userEmail);
+                    notificationOutboxService.enqueueBookingAcceptanceToBooker(
+                        userEmail,
+                        renterUser.getName(),
                         booking.getEquipment().getName(),
                         acceptingOwner.getName(),
                         acceptingOwner.getPhone(),
                         booking.getId()
                     );
-                    
-                    System.out.println("✅ Acceptance email sent successfully to: " + renterEmail);
-                    System.out.println("=====================================================\n");
-                    System.out.flush();
-                } else {
-                    System.out.println("❌ ERROR: Renter email is NULL/BLANK - cannot send acceptance email");
-                    System.out.println("=====================================================\n");
-                    System.out.flush();
                 }
+            }
 
-                // NEW: Also send notification to the Renter's USER account email if it exists and is different
-                try {
-                    Optional<User> renterUserOpt = userRepo.findByPhone(renter.getPhone());
-                    if (renterUserOpt.isPresent()) {
-                        User renterUser = renterUserOpt.get();
-                        String userEmail = renterUser.getEmail();
-                        if (userEmail != null && !userEmail.isBlank() && !userEmail.equalsIgnoreCase(renterEmail)) {
-                            System.out.println("📧 Also notifying renter's USER account: " + userEmail);
-                            emailService.sendBookingAcceptanceToBooker(
-                                userEmail,
-                                renterUser.getName(),
-                                booking.getEquipment().getName(),
-                                acceptingOwner.getName(),
-                                acceptingOwner.getPhone(),
-                                booking.getId()
-                            );
-                        }
-                    }
-                } catch (Exception e) {
-                    System.err.println("⚠️ Could not send secondary renter notification: " + e.getMessage());
-                }
-            } catch (Exception e) {
-                System.err.println("\n❌ ❌ ❌ EXCEPTION SENDING ACCEPTANCE EMAIL ❌ ❌ ❌");
-                System.err.println("Exception Type: " + e.getClass().getName());
-                System.err.println("Message: " + e.getMessage());
-                System.err.println("Stack trace:");
-                e.printStackTrace();
-                System.err.flush();
+            String ownerEmail = acceptingOwner.getEmail();
+            if (ownerEmail != null && !ownerEmail.isBlank()) {
+                notificationOutboxService.enqueueBookingAcceptanceToOwner(
+                    ownerEmail,
+                    acceptingOwner.getName(),
+                    booking.getEquipment().getName(),
+                    renter.getName(),
+                    renter.getPhone(),
+                    renter.getEmail(),
+                    booking.getLocation(),
+                    booking.getStartDate().toString(),
+                    booking.getHours(),
+                    booking.getId()
+                );
             }
-            
-            // Send email notification to the owner who accepted
-            try {
-                String ownerEmail = acceptingOwner.getEmail();
-                if (ownerEmail != null && !ownerEmail.isBlank()) {
-                    Farmer renter = booking.getRenter();
-                    emailService.sendBookingAcceptanceToOwner(
-                        ownerEmail,
-                        acceptingOwner.getName(),
+
+            // Also notify the owner's USER account email if it exists and is different
+            Optional<User> ownerUserOpt = userRepo.findByPhone(acceptingOwner.getPhone());
+            if (ownerUserOpt.isPresent()) {
+                User ownerUser = ownerUserOpt.get();
+                String userEmail = ownerUser.getEmail();
+                if (userEmail != null && !userEmail.isBlank() && !userEmail.equalsIgnoreCase(ownerEmail)) {
+                    System.out.println("📧 Also notifying owner's USER account: " + userEmail);
+                    notificationOutboxService.enqueueBookingAcceptanceToOwner(
+                        userEmail,
+                        ownerUser.getName(),
                         booking.getEquipment().getName(),
                         renter.getName(),
                         renter.getPhone(),
@@ -619,42 +468,15 @@ public class BookingController {
                         booking.getHours(),
                         booking.getId()
                     );
-                    System.out.println("📧 Sent acceptance email to owner: " + ownerEmail);
                 }
-
-                // NEW: Also send notification to the Owner's USER account email if it exists and is different
-                try {
-                    Optional<User> ownerUserOpt = userRepo.findByPhone(acceptingOwner.getPhone());
-                    if (ownerUserOpt.isPresent()) {
-                        User ownerUser = ownerUserOpt.get();
-                        String userEmail = ownerUser.getEmail();
-                        if (userEmail != null && !userEmail.isBlank() && !userEmail.equalsIgnoreCase(acceptingOwner.getEmail())) {
-                            System.out.println("📧 Also notifying owner's USER account: " + userEmail);
-                            Farmer renter = booking.getRenter();
-                            emailService.sendBookingAcceptanceToOwner(
-                                userEmail,
-                                ownerUser.getName(),
-                                booking.getEquipment().getName(),
-                                renter.getName(),
-                                renter.getPhone(),
-                                renter.getEmail(),
-                                booking.getLocation(),
-                                booking.getStartDate().toString(),
-                                booking.getHours(),
-                                booking.getId()
-                            );
-                        }
-                    }
-                } catch (Exception e) {
-                    System.err.println("⚠️ Could not send secondary owner notification: " + e.getMessage());
-                }
-            } catch (Exception e) {
-                System.err.println("Failed to send acceptance email to owner: " + e.getMessage());
             }
             
             System.out.println("=== ACCEPT COMPLETE ===");
             
-            return savedBooking;
+            return booking;
+        } catch (ResponseStatusException e) {
+            // Expected outcome (lost the race for the booking), already logged above
+            throw e;
         } catch (Exception e) {
             System.err.println("❌ Error accepting booking: " + e.getMessage());
             e.printStackTrace();
@@ -662,6 +484,13 @@ public class BookingController {
         }
     }
     
+    // Server-sent booking events (invitations, acceptances, expiries) for dashboards
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingEvents(@RequestParam Long userId) {
+        // 🔍 Support both User and Farmer IDs
+        return bookingPushService.subscribe(farmerIdentityService.resolve(userId).farmerIdOrRequested());
+    }
+
     // Get confirmed bookings for an owner (bookings they accepted)
     @GetMapping("/owner/{ownerId}/accepted")
     public List<Booking> getAcceptedBookingsByOwner(@PathVariable Long ownerId) {
@@ -669,21 +498,12 @@ public class BookingController {
         System.out.println("Owner ID: " + ownerId);
         
         // 🔍 Support both User and Farmer IDs
-        Long actualFarmerId = ownerId;
-        
-        // Check if this is a User ID, and get their Farmer ID
-        User user = userRepo.findById(ownerId).orElse(null);
-        if (user != null) {
-            System.out.println("✅ Found User with ID: " + ownerId + ", looking for corresponding Farmer...");
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-                System.out.println("✅ Found corresponding Farmer ID: " + actualFarmerId);
-            } else {
-                System.out.println("⚠️ No Farmer record found for User ID: " + ownerId);
-                return List.of(); // Return empty list if no Farmer record exists
-            }
+        FarmerIdentity identity = farmerIdentityService.resolve(ownerId);
+        if (identity.missingFarmer()) {
+            System.out.println("⚠️ No Farmer record found for User ID: " + ownerId);
+            return List.of(); // Return empty list if no Farmer record exists
         }
+        Long actualFarmerId = identity.farmerIdOrRequested();
         
         List<Booking> bookings = bookingRepo.findByAcceptedOwnerId(actualFarmerId);
         System.out.println("Found " + bookings.size() + " accepted bookings");
@@ -705,21 +525,12 @@ public class BookingController {
         System.out.println("Renter ID from path: " + renterId);
         
         // 🔍 Support both User and Farmer IDs
-        Long actualFarmerId = renterId;
-        
-        // Check if this is a User ID, and get their Farmer ID
-        User user = userRepo.findById(renterId).orElse(null);
-        if (user != null) {
-            System.out.println("✅ Found User with ID: " + renterId + ", looking for corresponding Farmer...");
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-                System.out.println("✅ Found corresponding Farmer ID: " + actualFarmerId);
-            } else {
-                System.out.println("⚠️ No Farmer record found for User ID: " + renterId);
-                return List.of(); // Return empty list if no Farmer record exists
-            }
+        FarmerIdentity identity = farmerIdentityService.resolve(renterId);
+        if (identity.missingFarmer()) {
+            System.out.println("⚠️ No Farmer record found for User ID: " + renterId);
+            return List.of(); // Return empty list if no Farmer record exists
         }
+        Long actualFarmerId = identity.farmerIdOrRequested();
         
         System.out.println("Querying: SELECT * FROM bookings WHERE renter_id = " + actualFarmerId + " AND status = 'CONFIRMED'");
         
@@ -751,21 +562,12 @@ public class BookingController {
         System.out.println("Owner ID: " + ownerId);
         
         // 🔍 Support both User and Farmer IDs
-        Long actualFarmerId = ownerId;
-        
-        // Check if this is a User ID, and get their Farmer ID
-        User user = userRepo.findById(ownerId).orElse(null);
-        if (user != null) {
-            System.out.println("✅ Found User with ID: " + ownerId + ", looking for corresponding Farmer...");
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-                System.out.println("✅ Found corresponding Farmer ID: " + actualFarmerId);
-            } else {
-                System.out.println("⚠️ No Farmer record found for User ID: " + ownerId);
-                return List.of(); // Return empty list if no Farmer record exists
-            }
+        FarmerIdentity identity = farmerIdentityService.resolve(ownerId);
+        if (identity.missingFarmer()) {
+            System.out.println("⚠️ No Farmer record found for User ID: " + ownerId);
+            return List.of(); // Return empty list if no Farmer record exists
         }
+        Long actualFarmerId = identity.farmerIdOrRequested();
         
         List<BookingCandidate> candidates = candidateRepository.findByOwnerIdAndStatusOrderByInvitedAtAsc(actualFarmerId, CandidateStatus.NOTIFIED);
         System.out.println("Found " + candidates.size() + " pending invitations");
@@ -860,15 +662,7 @@ public class BookingController {
         System.out.println("=== FETCHING MY BOOKINGS (WITH VALIDATION) ===");
         System.out.println("User ID: " + userId);
         
-        Long actualFarmerId = userId;
-        User user = userRepo.findById(userId).orElse(null);
-        
-        if (user != null) {
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-            }
-        }
+        Long actualFarmerId = farmerIdentityService.resolve(userId).farmerIdOrRequested();
         
         List<Booking> bookings = bookingRepo.findByRenterId(actualFarmerId);
         
@@ -889,15 +683,7 @@ public class BookingController {
         System.out.println("=== FETCHING MY OWNER BOOKINGS (WITH VALIDATION) ===");
         System.out.println("User ID: " + userId);
         
-        Long actualFarmerId = userId;
-        User user = userRepo.findById(userId).orElse(null);
-        
-        if (user != null) {
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-            }
-        }
+        Long actualFarmerId = farmerIdentityService.resolve(userId).farmerIdOrRequested();
         
         List<Booking> bookings = bookingRepo.findByOwnerId(actualFarmerId);
         
@@ -918,15 +704,7 @@ public class BookingController {
         System.out.println("=== FETCHING MY CONFIRMED BOOKINGS (WITH VALIDATION) ===");
         System.out.println("User ID: " + userId);
         
-        Long actualFarmerId = userId;
-        User user = userRepo.findById(userId).orElse(null);
-        
-        if (user != null) {
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-            }
-        }
+        Long actualFarmerId = farmerIdentityService.resolve(userId).farmerIdOrRequested();
         
         List<Booking> bookings = bookingRepo.findByRenterIdAndStatus(actualFarmerId, "CONFIRMED");
         
@@ -951,14 +729,7 @@ public class BookingController {
         Booking booking = bookingRepo.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
         
-        Long actualFarmerId = userId;
-        User user = userRepo.findById(userId).orElse(null);
-        if (user != null) {
-            Farmer farmer = farmerRepo.findByPhone(user.getPhone()).orElse(null);
-            if (farmer != null) {
-                actualFarmerId = farmer.getId();
-            }
-        }
+        Long actualFarmerId = farmerIdentityService.resolve(userId).farmerIdOrRequested();
         
         if (!booking.getRenter().getId().equals(actualFarmerId)) {
             throw new RuntimeException("Unauthorized: This booking does not belong to you");
@@ -969,7 +740,7 @@ public class BookingController {
             String renterName = booking.getRenter().getName();
             System.out.println("📧 Resending confirmation email to: " + renterEmail);
             
-            emailService.sendBookingConfirmationToBooker(
+            java.util.concurrent.CompletableFuture<Boolean> sent = emailService.sendBookingConfirmationToBooker(
                 renterEmail,
                 renterName,
                 booking.getEquipment().getName(),
@@ -979,10 +750,17 @@ public class BookingController {
             );
             
             Map<String, String> response = new java.util.HashMap<>();
+            // Sent in the background; only an immediate rejection (queue full, no mail sender, send failed at once) is known here
+            if (sent.isCompletedExceptionally() || Boolean.FALSE.equals(sent.getNow(null))) {
+                System.err.println("❌ Confirmation email for booking " + bookingId + " was not queued");
+                response.put("status", "error");
+                response.put("message", "Could not send the confirmation email, please try again in a moment");
+                return response;
+            }
             response.put("status", "success");
             response.put("message", "Confirmation email resent to " + renterEmail);
             
-            System.out.println("✅ Email resent successfully");
+            System.out.println("✅ Email queued for resend");
             return response;
         } catch (Exception e) {
             System.err.println("❌ Failed to resend email: " + e.getMessage());
@@ -0,0 +1,58 @@
+package com.farmtech.backend.controller;
+
+import com.farmtech.backend.entity.User;
+import com.farmtech.backend.repository.UserRepository;
+import com.farmtech.backend.service.BookingExportService;
+import com.farmtech.backend.service.BookingExportService.Format;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/bookings")
+@CrossOrigin(origins = "http://localhost:3000")
+public class BookingExportController {
+
+    private final BookingExportService bookingExportService;
+    private final UserRepository userRepository;
+
+    public BookingExportController(BookingExportService bookingExportService, UserRepository userRepository) {
+        this.bookingExportService = bookingExportService;
+        this.userRepository = userRepository;
+    }
+
+    // Streaming export for reconciliation (ADMIN ONLY), e.g.
+    // /api/bookings/export?userId=1&format=csv&from=2025-01-01&to=2025-01-31&status=CONFIRMED
+    @GetMapping("/export")
+    public ResponseEntity<?> exportBookings(@RequestParam Long userId,
+                                            @RequestParam(defaultValue = "ndjson") String format,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(required = false) String status) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null || !"ADMIN".equals(user.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Access denied. Only administrators can export bookings.");
+        }
+
+        Format exportFormat;
+        try {
+            exportFormat = Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unsupported format: " + format + " (use ndjson or csv)");
+        }
+
+        StreamingResponseBody body = out -> bookingExportService.export(exportFormat, from, to, status, out);
+        String filename = "bookings" + (from != null ? "-" + from : "") + (to != null ? "-" + to : "") + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+}
@@ -9,6 +9,7 @@ import com.farmtech.backend.repository.FarmerRepository;
 import com.farmtech.backend.repository.UserRepository;
 import com.farmtech.backend.repository.BookingRepository;
 import com.farmtech.backend.repository.BookingCandidateRepository;
+import com.farmtech.backend.service.BookingRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -37,6 +38,9 @@ public class EquipmentController {
     @Autowired
     private BookingCandidateRepository candidateRepo;
 
+    @Autowired
+    private BookingRollupService bookingRollupService;
+
     // Helper method to check if user is admin
     private boolean isAdmin(Long userId) {
         if (userId == null) return false;
@@ -77,9 +81,13 @@ public class EquipmentController {
     }
 
     // ✅ Fetch all equipment (for general listing)
+    // Keyset-paged: pass the X-Next-Cursor header value back as afterId for the next page
     @GetMapping
-    public List<Equipment> getAllEquipments() {
-        return equipmentRepo.findAll();
+    public ResponseEntity<List<Equipment>> getAllEquipments(@RequestParam(required = false) Long afterId,
+                                                            @RequestParam(required = false) Integer limit) {
+        int pageSize = KeysetPaging.limit(limit);
+        List<Equipment> rows = equipmentRepo.findByIdGreaterThanOrderByIdAsc(KeysetPaging.afterId(afterId), KeysetPaging.probe(pageSize));
+        return KeysetPaging.respond(rows, pageSize, Equipment::getId);
     }
 
     // ✅ Fetch all other farmers' equipment
@@ -147,7 +155,8 @@ public class EquipmentController {
             candidateRepo.deleteAll(candidateRepo.findByBookingId(booking.getId()));
         }
         
-        // Step 3: Delete the bookings
+        // Step 3: Delete the bookings (and take them out of the analytics rollups)
+        bookingRollupService.recordTransitions(bookingRollupService.lockSnapshotsForEquipment(equipmentId), List.of());
         bookingRepo.deleteByEquipmentId(equipmentId);
         
         // Step 4: Finally delete the equipment
@@ -2,6 +2,8 @@ package com.farmtech.backend.controller;
 
 import com.farmtech.backend.entity.Farmer;
 import com.farmtech.backend.repository.FarmerRepository;
+import com.farmtech.backend.service.FarmerIdentityService;
+import com.farmtech.backend.service.OwnerLocationIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +18,12 @@ public class FarmerController {
     @Autowired
     private FarmerRepository farmerRepository;
 
+    @Autowired
+    private OwnerLocationIndex ownerLocationIndex;
+
+    @Autowired
+    private FarmerIdentityService farmerIdentityService;
+
     // ✅ Get farmer profile by ID
     @GetMapping("/profile/{id}")
     public ResponseEntity<?> getProfile(@PathVariable Long id) {
@@ -79,6 +87,8 @@ public class FarmerController {
             }
             
             Farmer savedFarmer = farmerRepository.save(farmer);
+            farmerIdentityService.evictFarmer(savedFarmer.getId());
+            ownerLocationIndex.refreshFarmer(savedFarmer);
             return ResponseEntity.ok(savedFarmer);
         }
         
@@ -0,0 +1,52 @@
+package com.farmtech.backend.controller;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor (keyset) paging shared by the admin/catalogue list endpoints.
+ * Pages are ordered by id; the client passes the last id it saw as {@code afterId}.
+ * The body stays a plain JSON array and the cursor for the next page, if any, is
+ * returned in the {@value #NEXT_CURSOR_HEADER} header.
+ */
+final class KeysetPaging {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_LIMIT = 200;
+    static final int MAX_LIMIT = 500;
+
+    private KeysetPaging() {
+    }
+
+    static long afterId(Long afterId) {
+        return afterId != null && afterId > 0 ? afterId : 0L;
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Fetches one row more than the page size so we know whether another page exists.
+     */
+    static Pageable probe(int limit) {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    static <T> ResponseEntity<List<T>> respond(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) {
+            return ResponseEntity.ok(rows);
+        }
+        List<T> page = rows.subList(0, limit);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(idOf.apply(page.get(limit - 1))))
+                .body(page);
+    }
+}
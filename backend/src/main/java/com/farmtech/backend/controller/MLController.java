@@ -1,14 +1,12 @@
 package com.farmtech.backend.controller;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.farmtech.backend.service.MlGatewayService;
+import com.farmtech.backend.service.MlGatewayService.Endpoint;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 
@@ -18,65 +16,56 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 @ConditionalOnProperty(prefix = "ml", name = "enabled", havingValue = "true")
 public class MLController {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Calls go through the gateway so a slow model never holds a request thread
+    private final MlGatewayService mlGatewayService;
 
-    @Value("${ml.service.base:http://localhost:5001}")
-    private String mlServiceBase; // e.g., http://ml-service:5001 in docker-compose
+    public MLController(MlGatewayService mlGatewayService) {
+        this.mlGatewayService = mlGatewayService;
+    }
 
     @PostMapping("/crop-recommendation")
-    public ResponseEntity<?> cropRecommendation(@RequestBody Map<String, Object> payload) {
-        return forwardJson("/crop-recommendation", payload);
+    public CompletableFuture<ResponseEntity<String>> cropRecommendation(@RequestBody Map<String, Object> payload) {
+        return mlGatewayService.postJson(Endpoint.PREDICTION, "/crop-recommendation", payload);
     }
 
     @PostMapping("/fertilizer-prediction")
-    public ResponseEntity<?> fertilizerPrediction(@RequestBody Map<String, Object> payload) {
-        return forwardJson("/fertilizer-prediction", payload);
+    public CompletableFuture<ResponseEntity<String>> fertilizerPrediction(@RequestBody Map<String, Object> payload) {
+        return mlGatewayService.postJson(Endpoint.PREDICTION, "/fertilizer-prediction", payload);
     }
 
     @PostMapping("/crop-yield-estimation")
-    public ResponseEntity<?> cropYieldEstimation(@RequestBody Map<String, Object> payload) {
-        return forwardJson("/crop-yield-estimation", payload);
+    public CompletableFuture<ResponseEntity<String>> cropYieldEstimation(@RequestBody Map<String, Object> payload) {
+        return mlGatewayService.postJson(Endpoint.PREDICTION, "/crop-yield-estimation", payload);
     }
 
     @PostMapping("/soil-analysis")
-    public ResponseEntity<?> soilAnalysis(@RequestBody Map<String, Object> payload) {
-        return forwardJson("/soil-analysis", payload);
+    public CompletableFuture<ResponseEntity<String>> soilAnalysis(@RequestBody Map<String, Object> payload) {
+        return mlGatewayService.postJson(Endpoint.PREDICTION, "/soil-analysis", payload);
     }
 
     @PostMapping("/chatbot/chat")
-    public ResponseEntity<?> chatbotChat(@RequestBody Map<String, Object> payload) {
-        return forwardJson("/api/chatbot/chat", payload);
+    public CompletableFuture<ResponseEntity<String>> chatbotChat(@RequestBody Map<String, Object> payload) {
+        return mlGatewayService.postJson(Endpoint.CHAT, "/api/chatbot/chat", payload);
     }
 
     @PostMapping("/chatbot/translate")
-    public ResponseEntity<?> translate(@RequestBody Map<String, Object> payload) {
-        return forwardJson("/api/chatbot/translate", payload);
+    public CompletableFuture<ResponseEntity<String>> translate(@RequestBody Map<String, Object> payload) {
+        return mlGatewayService.postJson(Endpoint.CHAT, "/api/chatbot/translate", payload);
     }
 
     @PostMapping("/chatbot/detect-language")
-    public ResponseEntity<?> detectLanguage(@RequestBody Map<String, Object> payload) {
-        return forwardJson("/api/chatbot/detect-language", payload);
+    public CompletableFuture<ResponseEntity<String>> detectLanguage(@RequestBody Map<String, Object> payload) {
+        return mlGatewayService.postJson(Endpoint.CHAT, "/api/chatbot/detect-language", payload);
     }
 
     @GetMapping("/health")
-    public ResponseEntity<?> mlServiceHealth() {
-        try {
-            String url = mlServiceBase + "/health";
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
-        } catch (Exception e) {
-            return ResponseEntity.status(503).body("{\"status\":\"unavailable\",\"error\":\"" + e.getMessage() + "\"}");
-        }
+    public CompletableFuture<ResponseEntity<String>> mlServiceHealth() {
+        return mlGatewayService.get(Endpoint.HEALTH, "/health");
     }
 
-    // Image upload would typically be multipart; keep JSON forwarder here and add multipart later
-
-    private ResponseEntity<?> forwardJson(String path, Map<String, Object> payload) {
-        String url = mlServiceBase + path;
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, headers);
-        ResponseEntity<Map> response = restTemplate.postForEntity(url, requestEntity, Map.class);
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+    // Circuit state, concurrency and latency of calls to the ML service
+    @GetMapping("/gateway")
+    public MlGatewayService.MlGatewayStats gatewayStats() {
+        return mlGatewayService.getStats();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.farmtech.backend.controller;
+
+import com.farmtech.backend.entity.User;
+import com.farmtech.backend.repository.UserRepository;
+import com.farmtech.backend.service.CoordinateBackfillService;
+import com.farmtech.backend.service.EmailDispatcher;
+import com.farmtech.backend.service.GeocodingService;
+import com.farmtech.backend.service.NotificationOutboxService;
+import com.farmtech.backend.service.SmsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/ops")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class OpsController {
+
+    private final NotificationOutboxService notificationOutboxService;
+    private final EmailDispatcher emailDispatcher;
+    private final SmsService smsService;
+    private final GeocodingService geocodingService;
+    private final CoordinateBackfillService coordinateBackfillService;
+    private final UserRepository userRepository;
+
+    public OpsController(NotificationOutboxService notificationOutboxService, EmailDispatcher emailDispatcher,
+                         SmsService smsService, GeocodingService geocodingService,
+                         CoordinateBackfillService coordinateBackfillService, UserRepository userRepository) {
+        this.notificationOutboxService = notificationOutboxService;
+        this.emailDispatcher = emailDispatcher;
+        this.smsService = smsService;
+        this.geocodingService = geocodingService;
+        this.coordinateBackfillService = coordinateBackfillService;
+        this.userRepository = userRepository;
+    }
+
+    // Outbox backlog and delivery lag
+    @GetMapping("/outbox")
+    public NotificationOutboxService.OutboxStats getOutboxStats() {
+        return notificationOutboxService.getStats();
+    }
+
+    // Email queue depth, worker activity and send latency
+    @GetMapping("/email")
+    public EmailDispatcher.EmailStats getEmailStats() {
+        return emailDispatcher.getStats();
+    }
+
+    // SMS provider, queue depth and send latency
+    @GetMapping("/sms")
+    public SmsService.SmsStats getSmsStats() {
+        return smsService.getStats();
+    }
+
+    // Geocoding cache hit rates and upstream calls
+    @GetMapping("/geocoding")
+    public GeocodingService.GeocodingStats getGeocodingStats() {
+        return geocodingService.getStats();
+    }
+
+    // Start (or resume) filling in missing farmer/user coordinates (ADMIN ONLY)
+    @PostMapping("/backfill/coordinates")
+    public ResponseEntity<?> startCoordinateBackfill(@RequestParam Long userId,
+                                                     @RequestParam(defaultValue = "false") boolean restart) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null || !"ADMIN".equals(user.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Access denied. Only administrators can run the coordinate backfill.");
+        }
+        if (!coordinateBackfillService.start(restart)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(coordinateBackfillService.getProgress());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(coordinateBackfillService.getProgress());
+    }
+
+    // Backfill checkpoints, rows processed and throughput
+    @GetMapping("/backfill/coordinates")
+    public CoordinateBackfillService.BackfillProgress getCoordinateBackfillProgress() {
+        return coordinateBackfillService.getProgress();
+    }
+}
@@ -4,9 +4,11 @@ import com.farmtech.backend.entity.Booking;
 import com.farmtech.backend.entity.BookingCandidate;
 import com.farmtech.backend.repository.BookingCandidateRepository;
 import com.farmtech.backend.service.CandidateDispatchService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.security.Principal;
 
@@ -33,7 +35,13 @@ public class OwnerResponseController {
 
         assertOwnerAccess(principal, candidate);
 
-        Booking booking = candidateDispatchService.markAccepted(candidate);
+        Booking booking;
+        try {
+            booking = candidateDispatchService.markAccepted(candidate);
+        } catch (IllegalStateException e) {
+            // Another owner won the race
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
 
         OwnerResponsePayload payload = OwnerResponsePayload.from(booking, candidate, null);
         return ResponseEntity.ok(payload);
@@ -1,12 +1,15 @@
 package com.farmtech.backend.controller;
 
 import com.farmtech.backend.entity.User;
+import com.farmtech.backend.service.FarmerIdentityService;
+import com.farmtech.backend.service.OwnerLocationIndex;
 import com.farmtech.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,14 +20,33 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private OwnerLocationIndex ownerLocationIndex;
+
+    @Autowired
+    private FarmerIdentityService farmerIdentityService;
+
+    // Keyset-paged: pass the X-Next-Cursor header value back as afterId for the next page
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(required = false) Long afterId,
+                                                  @RequestParam(required = false) Integer limit) {
+        int pageSize = KeysetPaging.limit(limit);
+        List<User> rows = userService.getUsersAfter(KeysetPaging.afterId(afterId), KeysetPaging.probe(pageSize));
+        return KeysetPaging.respond(rows, pageSize, User::getId);
+    }
+
+    // Users per role, so dashboards can show totals without paging through every user
+    @GetMapping("/counts")
+    public Map<String, Long> getUserCountsByRole() {
+        return userService.countUsersByRole();
     }
 
     @PostMapping
     public User createUser(@RequestBody User user) {
-        return userService.saveUser(user);
+        User saved = userService.saveUser(user);
+        ownerLocationIndex.refreshOwner(saved); // may create the owner's Farmer profile
+        farmerIdentityService.evictUser(saved.getId());
+        return saved;
     }
 
     // Removed check-aadhar endpoint as Aadhar is no longer used
@@ -61,6 +83,8 @@ public class UserController {
             }
             
             userService.deleteUser(id);
+            farmerIdentityService.evictUser(id);
+            ownerLocationIndex.removeUser(id);
             return ResponseEntity.ok("User deleted successfully");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error deleting user: " + e.getMessage());
@@ -138,6 +162,8 @@ public class UserController {
             }
             
             User saved = userService.saveUser(user);
+            ownerLocationIndex.refreshOwner(saved); // may create the owner's Farmer profile
+            farmerIdentityService.evictUser(saved.getId()); // phone may have changed
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error updating user: " + e.getMessage());
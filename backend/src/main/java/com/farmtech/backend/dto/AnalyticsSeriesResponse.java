@@ -0,0 +1,119 @@
+package com.farmtech.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Booking counts, revenue and confirmation time per day, week or month. Bookings are counted in
+ * the period they were created in; periods without bookings are included with zeros.
+ */
+public class AnalyticsSeriesResponse {
+
+    private String granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private Long farmerId; // null for platform-wide series
+    private List<Point> points = new ArrayList<>();
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public Long getFarmerId() {
+        return farmerId;
+    }
+
+    public void setFarmerId(Long farmerId) {
+        this.farmerId = farmerId;
+    }
+
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<Point> points) {
+        this.points = points;
+    }
+
+    public static class Point {
+
+        private LocalDate periodStart;
+        private long totalBookings;
+        private Map<String, Long> bookingsByStatus = new LinkedHashMap<>();
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal confirmedRevenue = BigDecimal.ZERO;
+        private Double averageConfirmationTimeMinutes;
+
+        public LocalDate getPeriodStart() {
+            return periodStart;
+        }
+
+        public void setPeriodStart(LocalDate periodStart) {
+            this.periodStart = periodStart;
+        }
+
+        public long getTotalBookings() {
+            return totalBookings;
+        }
+
+        public void setTotalBookings(long totalBookings) {
+            this.totalBookings = totalBookings;
+        }
+
+        public Map<String, Long> getBookingsByStatus() {
+            return bookingsByStatus;
+        }
+
+        public void setBookingsByStatus(Map<String, Long> bookingsByStatus) {
+            this.bookingsByStatus = bookingsByStatus;
+        }
+
+        public BigDecimal getRevenue() {
+            return revenue;
+        }
+
+        public void setRevenue(BigDecimal revenue) {
+            this.revenue = revenue;
+        }
+
+        public BigDecimal getConfirmedRevenue() {
+            return confirmedRevenue;
+        }
+
+        public void setConfirmedRevenue(BigDecimal confirmedRevenue) {
+            this.confirmedRevenue = confirmedRevenue;
+        }
+
+        public Double getAverageConfirmationTimeMinutes() {
+            return averageConfirmationTimeMinutes;
+        }
+
+        public void setAverageConfirmationTimeMinutes(Double averageConfirmationTimeMinutes) {
+            this.averageConfirmationTimeMinutes = averageConfirmationTimeMinutes;
+        }
+    }
+}
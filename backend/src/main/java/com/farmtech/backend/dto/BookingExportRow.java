@@ -0,0 +1,144 @@
+package com.farmtech.backend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only view of a booking for exports. Built directly by a JPQL constructor
+ * expression, so no Booking/Farmer/Equipment entities are loaded into the persistence context.
+ */
+public class BookingExportRow {
+
+    public static final String[] CSV_HEADER = {
+            "id", "status", "createdAt", "confirmedAt", "startDate", "endDate", "hours", "totalCost",
+            "location", "equipmentId", "equipmentName", "ownerId", "ownerName",
+            "renterId", "renterName", "renterPhone", "acceptedOwnerId", "acceptedOwnerName"
+    };
+
+    private final Long id;
+    private final String status;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime confirmedAt;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final Integer hours;
+    private final Double totalCost;
+    private final String location;
+    private final Long equipmentId;
+    private final String equipmentName;
+    private final Long ownerId;
+    private final String ownerName;
+    private final Long renterId;
+    private final String renterName;
+    private final String renterPhone;
+    private final Long acceptedOwnerId;
+    private final String acceptedOwnerName;
+
+    public BookingExportRow(Long id, String status, LocalDateTime createdAt, LocalDateTime confirmedAt,
+                            LocalDate startDate, LocalDate endDate, Integer hours, Double totalCost,
+                            String location, Long equipmentId, String equipmentName,
+                            Long ownerId, String ownerName, Long renterId, String renterName, String renterPhone,
+                            Long acceptedOwnerId, String acceptedOwnerName) {
+        this.id = id;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.confirmedAt = confirmedAt;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.hours = hours;
+        this.totalCost = totalCost;
+        this.location = location;
+        this.equipmentId = equipmentId;
+        this.equipmentName = equipmentName;
+        this.ownerId = ownerId;
+        this.ownerName = ownerName;
+        this.renterId = renterId;
+        this.renterName = renterName;
+        this.renterPhone = renterPhone;
+        this.acceptedOwnerId = acceptedOwnerId;
+        this.acceptedOwnerName = acceptedOwnerName;
+    }
+
+    /**
+     * Values in {@link #CSV_HEADER} order.
+     */
+    public Object[] toCsvValues() {
+        return new Object[]{
+                id, status, createdAt, confirmedAt, startDate, endDate, hours, totalCost,
+                location, equipmentId, equipmentName, ownerId, ownerName,
+                renterId, renterName, renterPhone, acceptedOwnerId, acceptedOwnerName
+        };
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getConfirmedAt() {
+        return confirmedAt;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public Integer getHours() {
+        return hours;
+    }
+
+    public Double getTotalCost() {
+        return totalCost;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public Long getEquipmentId() {
+        return equipmentId;
+    }
+
+    public String getEquipmentName() {
+        return equipmentName;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public Long getRenterId() {
+        return renterId;
+    }
+
+    public String getRenterName() {
+        return renterName;
+    }
+
+    public String getRenterPhone() {
+        return renterPhone;
+    }
+
+    public Long getAcceptedOwnerId() {
+        return acceptedOwnerId;
+    }
+
+    public String getAcceptedOwnerName() {
+        return acceptedOwnerName;
+    }
+}
@@ -0,0 +1,120 @@
+package com.farmtech.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * How far a resumable background job got: rows up to {@code lastId} are done. Written in the
+ * same transaction as each chunk's results, so a restart continues after the last committed chunk.
+ */
+@Entity
+@Table(name = "backfill_checkpoints")
+public class BackfillCheckpoint {
+
+    public enum JobStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount;
+
+    @Column(name = "updated_count", nullable = false)
+    private long updatedCount;
+
+    @Column(name = "unresolved_count", nullable = false)
+    private long unresolvedCount;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(long processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public long getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(long updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public long getUnresolvedCount() {
+        return unresolvedCount;
+    }
+
+    public void setUnresolvedCount(long unresolvedCount) {
+        this.unresolvedCount = unresolvedCount;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
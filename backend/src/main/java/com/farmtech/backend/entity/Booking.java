@@ -5,10 +5,25 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "bookings")
+// Loads a booking with everything the list endpoints serialize in one joined SELECT
+@NamedEntityGraph(name = Booking.GRAPH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "equipment", subgraph = "equipment"),
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode("renter"),
+                @NamedAttributeNode("acceptedOwner")
+        },
+        subgraphs = @NamedSubgraph(name = "equipment", attributeNodes = @NamedAttributeNode("owner")))
 public class Booking {
 
+    public static final String GRAPH_DETAILS = "Booking.details";
+
+    // Block-allocated from id_generators (seeded by IdGeneratorSeeder)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "booking_id")
+    @TableGenerator(name = "booking_id", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "bookings", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -53,6 +68,11 @@ public class Booking {
     @Column(name = "confirmed_at")
     private java.time.LocalDateTime confirmedAt;
 
+    // Optimistic lock: concurrent writers of the same booking fail instead of overwriting each other
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long version;
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -104,4 +124,7 @@ public class Booking {
 
     public java.time.LocalDateTime getEstimatedArrivalDateTime() { return estimatedArrivalDateTime; }
     public void setEstimatedArrivalDateTime(java.time.LocalDateTime estimatedArrivalDateTime) { this.estimatedArrivalDateTime = estimatedArrivalDateTime; }
-}
\ No newline at end of file
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
@@ -4,9 +4,26 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "booking_candidates")
+@Table(name = "booking_candidates",
+        indexes = @Index(name = "idx_candidates_status_invited", columnList = "status, invited_at"))
+@NamedEntityGraph(name = BookingCandidate.GRAPH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "booking", subgraph = "booking"),
+                @NamedAttributeNode("owner")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "booking", attributeNodes = {
+                        @NamedAttributeNode(value = "equipment", subgraph = "equipment"),
+                        @NamedAttributeNode("owner"),
+                        @NamedAttributeNode("renter"),
+                        @NamedAttributeNode("acceptedOwner")
+                }),
+                @NamedSubgraph(name = "equipment", attributeNodes = @NamedAttributeNode("owner"))
+        })
 public class BookingCandidate {
 
+    public static final String GRAPH_DETAILS = "BookingCandidate.details";
+
     public enum CandidateStatus {
         PENDING,
         NOTIFIED,
@@ -16,8 +33,12 @@ public class BookingCandidate {
         EXPIRED
     }
 
+    // Pooled table generator instead of IDENTITY so Hibernate can batch the INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "booking_candidate_id")
+    @TableGenerator(name = "booking_candidate_id", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "booking_candidates", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -0,0 +1,98 @@
+package com.farmtech.backend.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Booking totals for one scope, one creation day and one status. Written together with
+ * {@link BookingRollup} by BookingRollupService; /api/analytics/series sums these into days,
+ * weeks or months.
+ */
+@Entity
+@Table(name = "booking_daily_rollups")
+public class BookingDailyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "booking_count", nullable = false)
+    private long bookingCount;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "confirm_minutes_sum", nullable = false)
+    private long confirmMinutesSum;
+
+    @Column(name = "confirm_count", nullable = false)
+    private long confirmCount;
+
+    public Key getId() { return id; }
+    public void setId(Key id) { this.id = id; }
+
+    public long getBookingCount() { return bookingCount; }
+    public void setBookingCount(long bookingCount) { this.bookingCount = bookingCount; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+    public long getConfirmMinutesSum() { return confirmMinutesSum; }
+    public void setConfirmMinutesSum(long confirmMinutesSum) { this.confirmMinutesSum = confirmMinutesSum; }
+
+    public long getConfirmCount() { return confirmCount; }
+    public void setConfirmCount(long confirmCount) { this.confirmCount = confirmCount; }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "scope_type", length = 10)
+        private BookingRollup.Scope scopeType;
+
+        @Column(name = "scope_id")
+        private Long scopeId;
+
+        @Column(name = "bucket_date")
+        private LocalDate bucketDate; // Day the bookings were created
+
+        @Column(length = 40)
+        private String status;
+
+        @Column(name = "slot")
+        private Integer slot;
+
+        public BookingRollup.Scope getScopeType() { return scopeType; }
+        public void setScopeType(BookingRollup.Scope scopeType) { this.scopeType = scopeType; }
+
+        public Long getScopeId() { return scopeId; }
+        public void setScopeId(Long scopeId) { this.scopeId = scopeId; }
+
+        public LocalDate getBucketDate() { return bucketDate; }
+        public void setBucketDate(LocalDate bucketDate) { this.bucketDate = bucketDate; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public Integer getSlot() { return slot; }
+        public void setSlot(Integer slot) { this.slot = slot; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return scopeType == key.scopeType && Objects.equals(scopeId, key.scopeId)
+                    && Objects.equals(bucketDate, key.bucketDate) && Objects.equals(status, key.status)
+                    && Objects.equals(slot, key.slot);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scopeType, scopeId, bucketDate, status, slot);
+        }
+    }
+}
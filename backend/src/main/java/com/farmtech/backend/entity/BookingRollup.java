@@ -0,0 +1,96 @@
+package com.farmtech.backend.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Running booking totals for one scope (the whole platform or one farmer) and one status.
+ * Rows are only ever changed by BookingRollupService, in the same transaction as the booking
+ * change, so /api/analytics reads a handful of rows instead of scanning bookings.
+ */
+@Entity
+@Table(name = "booking_rollups")
+public class BookingRollup {
+
+    public enum Scope {
+        GLOBAL,
+        FARMER
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "booking_count", nullable = false)
+    private long bookingCount;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "confirm_minutes_sum", nullable = false)
+    private long confirmMinutesSum; // Sum of created_at -> confirmed_at minutes
+
+    @Column(name = "confirm_count", nullable = false)
+    private long confirmCount; // Bookings that have a confirmed_at
+
+    public Key getId() { return id; }
+    public void setId(Key id) { this.id = id; }
+
+    public long getBookingCount() { return bookingCount; }
+    public void setBookingCount(long bookingCount) { this.bookingCount = bookingCount; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+    public long getConfirmMinutesSum() { return confirmMinutesSum; }
+    public void setConfirmMinutesSum(long confirmMinutesSum) { this.confirmMinutesSum = confirmMinutesSum; }
+
+    public long getConfirmCount() { return confirmCount; }
+    public void setConfirmCount(long confirmCount) { this.confirmCount = confirmCount; }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "scope_type", length = 10)
+        private Scope scopeType;
+
+        @Column(name = "scope_id")
+        private Long scopeId; // 0 for GLOBAL, the farmer id for FARMER
+
+        @Column(length = 40)
+        private String status;
+
+        // GLOBAL rows are spread over a few slots so concurrent bookings don't all wait on one row lock
+        @Column(name = "slot")
+        private Integer slot;
+
+        public Scope getScopeType() { return scopeType; }
+        public void setScopeType(Scope scopeType) { this.scopeType = scopeType; }
+
+        public Long getScopeId() { return scopeId; }
+        public void setScopeId(Long scopeId) { this.scopeId = scopeId; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public Integer getSlot() { return slot; }
+        public void setSlot(Integer slot) { this.slot = slot; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return scopeType == key.scopeType && Objects.equals(scopeId, key.scopeId)
+                    && Objects.equals(status, key.status) && Objects.equals(slot, key.slot);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scopeType, scopeId, status, slot);
+        }
+    }
+}
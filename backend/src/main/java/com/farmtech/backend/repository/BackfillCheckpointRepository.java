@@ -0,0 +1,7 @@
+package com.farmtech.backend.repository;
+
+import com.farmtech.backend.entity.BackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BackfillCheckpointRepository extends JpaRepository<BackfillCheckpoint, String> {
+}
@@ -4,15 +4,20 @@ import com.farmtech.backend.entity.Booking;
 import com.farmtech.backend.entity.BookingCandidate;
 import com.farmtech.backend.entity.BookingCandidate.CandidateStatus;
 import com.farmtech.backend.entity.Farmer;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingCandidateRepository extends JpaRepository<BookingCandidate, Long> {
 
+    @EntityGraph(BookingCandidate.GRAPH_DETAILS)
     List<BookingCandidate> findByBookingOrderByDistanceKmAsc(Booking booking);
 
     Optional<BookingCandidate> findFirstByBookingAndStatusOrderByInvitedAtAsc(Booking booking, CandidateStatus status);
@@ -21,6 +26,7 @@ public interface BookingCandidateRepository extends JpaRepository<BookingCandida
 
     Optional<BookingCandidate> findFirstByBookingOrderByInvitedAtAsc(Booking booking);
 
+    @EntityGraph(BookingCandidate.GRAPH_DETAILS)
     @Query("SELECT bc FROM BookingCandidate bc WHERE bc.booking = :booking AND bc.status IN :statuses ORDER BY bc.invitedAt ASC")
     List<BookingCandidate> findCandidatesForStatuses(@Param("booking") Booking booking,
                                                      @Param("statuses") List<CandidateStatus> statuses);
@@ -28,14 +34,88 @@ public interface BookingCandidateRepository extends JpaRepository<BookingCandida
     Optional<BookingCandidate> findByBookingAndOwner(Booking booking, Farmer owner);
     
     // Find all candidates for a specific owner by status
+    @EntityGraph(BookingCandidate.GRAPH_DETAILS)
     List<BookingCandidate> findByOwnerIdAndStatus(Long ownerId, CandidateStatus status);
     
     // Find all candidates for a specific owner (all statuses)
+    @EntityGraph(BookingCandidate.GRAPH_DETAILS)
     List<BookingCandidate> findByOwnerIdOrderByInvitedAtDesc(Long ownerId);
     
     // Find pending candidates for a specific owner (NOTIFIED status)
+    @EntityGraph(BookingCandidate.GRAPH_DETAILS)
     List<BookingCandidate> findByOwnerIdAndStatusOrderByInvitedAtAsc(Long ownerId, CandidateStatus status);
     
     // Find all candidates for a specific booking
+    @EntityGraph(BookingCandidate.GRAPH_DETAILS)
     List<BookingCandidate> findByBookingId(Long bookingId);
-}
\ No newline at end of file
+
+    // Owner IDs only, for push notifications (no candidate hydration)
+    @Query("SELECT bc.owner.id FROM BookingCandidate bc WHERE bc.booking.id = :bookingId")
+    List<Long> findOwnerIdsByBookingId(@Param("bookingId") Long bookingId);
+
+    // Bulk updates for accept/revoke; they bypass the persistence context, so pending changes are flushed first
+
+    // Expire every candidate of the booking except the accepting owner's
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookingCandidate bc SET bc.status = :status, bc.expiredAt = :now " +
+           "WHERE bc.booking.id = :bookingId AND bc.owner.id <> :ownerId")
+    int expireOtherCandidates(@Param("bookingId") Long bookingId,
+                              @Param("ownerId") Long ownerId,
+                              @Param("status") CandidateStatus status,
+                              @Param("now") LocalDateTime now);
+
+    // Invitation time of an owner's candidate row(s) in the given status, for response-time stats
+    @Query("SELECT bc.invitedAt FROM BookingCandidate bc " +
+           "WHERE bc.booking.id = :bookingId AND bc.owner.id = :ownerId AND bc.status = :status")
+    List<LocalDateTime> findInvitedAt(@Param("bookingId") Long bookingId,
+                                      @Param("ownerId") Long ownerId,
+                                      @Param("status") CandidateStatus status);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookingCandidate bc SET bc.status = :status, bc.acceptedAt = :now, bc.respondedAt = :now " +
+           "WHERE bc.booking.id = :bookingId AND bc.owner.id = :ownerId")
+    int markOwnerAccepted(@Param("bookingId") Long bookingId,
+                          @Param("ownerId") Long ownerId,
+                          @Param("status") CandidateStatus status,
+                          @Param("now") LocalDateTime now);
+
+    // Revoke still-open invitations (NOTIFIED) once another candidate accepted
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookingCandidate bc SET bc.status = :newStatus, bc.respondedAt = :now " +
+           "WHERE bc.booking.id = :bookingId AND bc.id <> :acceptedCandidateId AND bc.status = :oldStatus")
+    int revokeNotifiedCandidates(@Param("bookingId") Long bookingId,
+                                 @Param("acceptedCandidateId") Long acceptedCandidateId,
+                                 @Param("oldStatus") CandidateStatus oldStatus,
+                                 @Param("newStatus") CandidateStatus newStatus,
+                                 @Param("now") LocalDateTime now);
+
+    // PENDING candidates were never invited, so they get an invitedAt as well
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookingCandidate bc SET bc.status = :newStatus, bc.invitedAt = :now, bc.respondedAt = :now " +
+           "WHERE bc.booking.id = :bookingId AND bc.id <> :acceptedCandidateId AND bc.status = :oldStatus")
+    int revokePendingCandidates(@Param("bookingId") Long bookingId,
+                                @Param("acceptedCandidateId") Long acceptedCandidateId,
+                                @Param("oldStatus") CandidateStatus oldStatus,
+                                @Param("newStatus") CandidateStatus newStatus,
+                                @Param("now") LocalDateTime now);
+
+    // Invitation timeouts: newest open invitation per booking, used to rebuild the timer wheel on startup
+    @Query("SELECT bc.booking.id, MAX(bc.invitedAt) FROM BookingCandidate bc WHERE bc.status = :status GROUP BY bc.booking.id")
+    List<Object[]> findLatestInvitedAtPerBooking(@Param("status") CandidateStatus status);
+
+    // (bookingId, ownerId) pairs whose invitation is about to be timed out
+    @Query("SELECT bc.booking.id, bc.owner.id FROM BookingCandidate bc " +
+           "WHERE bc.booking.id IN :bookingIds AND bc.status = :status AND bc.invitedAt <= :cutoff")
+    List<Object[]> findStaleInvitations(@Param("bookingIds") Collection<Long> bookingIds,
+                                        @Param("status") CandidateStatus status,
+                                        @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookingCandidate bc SET bc.status = :newStatus, bc.expiredAt = :now " +
+           "WHERE bc.booking.id IN :bookingIds AND bc.status = :oldStatus AND bc.invitedAt <= :cutoff")
+    int expireStaleInvitations(@Param("bookingIds") Collection<Long> bookingIds,
+                               @Param("oldStatus") CandidateStatus oldStatus,
+                               @Param("newStatus") CandidateStatus newStatus,
+                               @Param("cutoff") LocalDateTime cutoff,
+                               @Param("now") LocalDateTime now);
+}
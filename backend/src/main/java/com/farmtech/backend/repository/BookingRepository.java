@@ -1,38 +1,113 @@
 
 package com.farmtech.backend.repository;
 
+import com.farmtech.backend.dto.BookingExportRow;
 import com.farmtech.backend.entity.Booking;
+import com.farmtech.backend.entity.BookingCandidate;
+import com.farmtech.backend.entity.Farmer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+    // List reads fetch equipment, its owner, owner, renter and acceptedOwner in the same query
+    // instead of one SELECT per association per row
+    @Override
+    @EntityGraph(Booking.GRAPH_DETAILS)
+    List<Booking> findAll();
+
+    // Keyset page for the admin list: rows after the cursor, in id order
+    @EntityGraph(Booking.GRAPH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId ORDER BY b.id ASC")
+    List<Booking> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // (status, count) pairs
+    @Query("SELECT b.status, COUNT(b) FROM Booking b GROUP BY b.status")
+    List<Object[]> countGroupByStatus();
+
     // Explicit query to ensure correct filtering by renter ID
+    @EntityGraph(Booking.GRAPH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.renter.id = :renterId")
     List<Booking> findByRenterId(@Param("renterId") Long renterId); // Bookings made by a renter (buyer view)
     
     // Explicit query to ensure correct filtering by owner ID
+    @EntityGraph(Booking.GRAPH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.owner.id = :ownerId")
     List<Booking> findByOwnerId(@Param("ownerId") Long ownerId);   // Bookings received for an owner's equipment (owner view)
     
+    @EntityGraph(Booking.GRAPH_DETAILS)
     List<Booking> findByStatus(String status);   // Find bookings by status (for pending bookings)
+    @EntityGraph(Booking.GRAPH_DETAILS)
     List<Booking> findByStatusIn(List<String> statuses); // Find bookings whose status is in the provided list
     
     // New methods for enhanced functionality
+    @EntityGraph(Booking.GRAPH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.acceptedOwner.id = :acceptedOwnerId")
     List<Booking> findByAcceptedOwnerId(@Param("acceptedOwnerId") Long acceptedOwnerId); // Bookings accepted by a specific owner
     
     // Explicit query to ensure correct filtering by renter ID and status
+    @EntityGraph(Booking.GRAPH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.renter.id = :renterId AND b.status = :status")
     List<Booking> findByRenterIdAndStatus(@Param("renterId") Long renterId, @Param("status") String status);
 
     // Find all bookings for a specific equipment
+    @EntityGraph(Booking.GRAPH_DETAILS)
     @Query("SELECT b FROM Booking b WHERE b.equipment.id = :equipmentId")
     List<Booking> findByEquipmentId(@Param("equipmentId") Long equipmentId);
 
     // Clean up all bookings referencing an equipment (to avoid FK constraint on delete)
     @Transactional
     void deleteByEquipmentId(Long equipmentId);
-}
\ No newline at end of file
+
+    // Confirms the booking for this owner only if nobody accepted it yet and it is still in expectedStatus
+    // (the status the caller's rollup snapshot saw). Returns 1 for the winning accept and 0 for everyone
+    // else, including a caller whose snapshot is stale (CandidateDispatchService.confirmForOwner re-reads and retries).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.acceptedOwner = :owner, b.status = 'CONFIRMED', b.confirmedAt = :now, " +
+           "b.version = b.version + 1 WHERE b.id = :bookingId AND b.acceptedOwner IS NULL " +
+           "AND (b.status = :expectedStatus OR (:expectedStatus IS NULL AND b.status IS NULL))")
+    int confirmIfUnaccepted(@Param("bookingId") Long bookingId,
+                            @Param("owner") Farmer owner,
+                            @Param("expectedStatus") String expectedStatus,
+                            @Param("now") LocalDateTime now);
+
+    // Moves bookings that have no open invitation left (and no accepted owner) to another status
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :newStatus, b.version = b.version + 1 " +
+           "WHERE b.id IN :bookingIds AND b.status = :oldStatus AND b.acceptedOwner IS NULL " +
+           "AND NOT EXISTS (SELECT bc.id FROM BookingCandidate bc WHERE bc.booking.id = b.id AND bc.status = :openStatus)")
+    int updateStatusWhereNoOpenCandidates(@Param("bookingIds") Collection<Long> bookingIds,
+                                          @Param("oldStatus") String oldStatus,
+                                          @Param("newStatus") String newStatus,
+                                          @Param("openStatus") BookingCandidate.CandidateStatus openStatus);
+
+    // (bookingId, renterId) pairs, for push notifications
+    @Query("SELECT b.id, b.renter.id FROM Booking b WHERE b.id IN :bookingIds AND b.status = :status")
+    List<Object[]> findRenterIdsByIdInAndStatus(@Param("bookingIds") Collection<Long> bookingIds,
+                                                @Param("status") String status);
+
+    // Export cursor: flat rows streamed from MySQL (fetch size MIN_VALUE = row-by-row streaming in Connector/J).
+    // Must be consumed inside a transaction and the Stream closed afterwards.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new com.farmtech.backend.dto.BookingExportRow(b.id, b.status, b.createdAt, b.confirmedAt, " +
+           "b.startDate, b.endDate, b.hours, b.totalCost, b.location, e.id, e.name, o.id, o.name, " +
+           "r.id, r.name, r.phone, a.id, a.name) " +
+           "FROM Booking b JOIN b.equipment e JOIN b.owner o JOIN b.renter r LEFT JOIN b.acceptedOwner a " +
+           "WHERE (:from IS NULL OR b.createdAt >= :from) AND (:to IS NULL OR b.createdAt < :to) " +
+           "AND (:status IS NULL OR b.status = :status) ORDER BY b.id ASC")
+    Stream<BookingExportRow> streamForExport(@Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("status") String status);
+}
@@ -1,11 +1,25 @@
 package com.farmtech.backend.repository;
 
 import com.farmtech.backend.entity.Equipment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
 public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
+    // Owner is joined into the list queries rather than loaded per row
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Equipment> findAll();
+
+    // Keyset page: rows after the cursor, in id order
+    @EntityGraph(attributePaths = "owner")
+    List<Equipment> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "owner")
     List<Equipment> findByOwner_IdNot(Long ownerId); // Other farmers' equipment
+    @EntityGraph(attributePaths = "owner")
     List<Equipment> findByOwner_Id(Long ownerId);    // Farmer's own equipment
+    @EntityGraph(attributePaths = "owner")
     List<Equipment> findByType(String type); // Find equipment by type
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.farmtech.backend.repository;
+
+import com.farmtech.backend.entity.GeocodeCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface GeocodeCacheRepository extends JpaRepository<GeocodeCacheEntry, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GeocodeCacheEntry g WHERE g.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
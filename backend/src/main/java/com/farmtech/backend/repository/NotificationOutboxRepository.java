@@ -0,0 +1,84 @@
+package com.farmtech.backend.repository;
+
+import com.farmtech.backend.entity.NotificationOutbox;
+import com.farmtech.backend.entity.NotificationOutbox.NotificationType;
+import com.farmtech.backend.entity.NotificationOutbox.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Due entries that are not currently leased by a dispatcher
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.status = :status AND n.nextAttemptAt <= :now " +
+           "AND (n.lockedUntil IS NULL OR n.lockedUntil < :now) ORDER BY n.id ASC")
+    List<NotificationOutbox> findDue(@Param("status") OutboxStatus status,
+                                     @Param("now") LocalDateTime now,
+                                     Pageable pageable);
+
+    // Never-attempted entries of one recipient that a digest can take, due or not. Entries waiting out a
+    // retry back-off (attempts > 0) are left to findDue.
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.recipient = :recipient AND n.type = :type AND n.status = :status " +
+           "AND n.attempts = 0 AND (n.lockedUntil IS NULL OR n.lockedUntil < :now) ORDER BY n.id ASC")
+    List<NotificationOutbox> findUnleasedForRecipient(@Param("recipient") String recipient,
+                                                      @Param("type") NotificationType type,
+                                                      @Param("status") OutboxStatus status,
+                                                      @Param("now") LocalDateTime now,
+                                                      Pageable pageable);
+
+    // Entries the recipient's next digest would take (same conditions as findUnleasedForRecipient)
+    @Query("SELECT COUNT(n) FROM NotificationOutbox n WHERE n.recipient = :recipient AND n.type = :type " +
+           "AND n.status = :status AND n.attempts = 0 AND (n.lockedUntil IS NULL OR n.lockedUntil < :now)")
+    long countDigestable(@Param("recipient") String recipient,
+                         @Param("type") NotificationType type,
+                         @Param("status") OutboxStatus status,
+                         @Param("now") LocalDateTime now);
+
+    // Ends a recipient's digest window early, e.g. once the digest is full
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox n SET n.nextAttemptAt = :now WHERE n.recipient = :recipient AND n.type = :type " +
+           "AND n.status = :status AND n.attempts = 0 AND n.nextAttemptAt > :now")
+    int makeDue(@Param("recipient") String recipient,
+                @Param("type") NotificationType type,
+                @Param("status") OutboxStatus status,
+                @Param("now") LocalDateTime now);
+
+    // Lease an entry so a concurrent dispatcher (or another instance) skips it
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox n SET n.lockedUntil = :lockedUntil WHERE n.id = :id AND n.status = :status " +
+           "AND (n.lockedUntil IS NULL OR n.lockedUntil < :now)")
+    int claim(@Param("id") Long id,
+              @Param("status") OutboxStatus status,
+              @Param("now") LocalDateTime now,
+              @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox n SET n.status = :status, n.sentAt = :sentAt, n.attempts = n.attempts + 1, " +
+           "n.lockedUntil = NULL, n.lastError = NULL WHERE n.id = :id")
+    int markSent(@Param("id") Long id,
+                 @Param("status") OutboxStatus status,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox n SET n.status = :status, n.attempts = n.attempts + 1, " +
+           "n.nextAttemptAt = :nextAttemptAt, n.lockedUntil = NULL, n.lastError = :error WHERE n.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") OutboxStatus status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+
+    long countByStatus(OutboxStatus status);
+
+    @Query("SELECT MIN(n.createdAt) FROM NotificationOutbox n WHERE n.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboxStatus status);
+}
@@ -2,6 +2,7 @@ package com.farmtech.backend.repository;
 
 import com.farmtech.backend.entity.User;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -21,6 +22,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     List<User> findByRole(String role);
 
+    // Keyset page: rows after the cursor, in id order
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // (role, count) pairs
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countByRole();
+
     @Modifying
     @Transactional
     @Query("UPDATE User u SET u.otp = :otp, u.otpExpiry = :expiry WHERE u.id = :userId")
@@ -1,83 +1,165 @@
 package com.farmtech.backend.service;
 
 import com.farmtech.backend.dto.AnalyticsResponse;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.Query;
+import com.farmtech.backend.dto.AnalyticsSeriesResponse;
+import com.farmtech.backend.entity.BookingRollup.Scope;
+import com.farmtech.backend.service.BookingRollupService.DailyTotals;
+import com.farmtech.backend.service.BookingRollupService.StatusTotals;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+/**
+ * Booking analytics served from the rollup rows maintained by {@link BookingRollupService}
+ * instead of aggregating the bookings table on every request.
+ */
 @Service
 public class BookingAnalyticsService {
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    public enum Granularity {
+        DAY,
+        WEEK,   // ISO weeks, starting Monday
+        MONTH;
 
+        LocalDate periodStart(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate nextPeriod(LocalDate periodStart) {
+            return switch (this) {
+                case DAY -> periodStart.plusDays(1);
+                case WEEK -> periodStart.plusWeeks(1);
+                case MONTH -> periodStart.plusMonths(1);
+            };
+        }
+    }
+
+    // Keeps a chart request from asking for years of single days
+    private static final int MAX_POINTS = 1000;
+
+    private final BookingRollupService bookingRollupService;
+
+    public BookingAnalyticsService(BookingRollupService bookingRollupService) {
+        this.bookingRollupService = bookingRollupService;
+    }
 
-    @Transactional(readOnly = true)
     public AnalyticsResponse getGlobalAnalytics() {
-        String sql = """
-                SELECT
-                    COUNT(*) AS total_bookings,
-                    SUM(CASE WHEN status = 'CONFIRMED' THEN 1 ELSE 0 END) AS confirmed_bookings,
-                    SUM(CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END) AS pending_bookings,
-                    SUM(CASE WHEN status = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelled_bookings,
-                    COALESCE(SUM(total_cost), 0) AS total_revenue,
-                    COALESCE(SUM(CASE WHEN status = 'CONFIRMED' THEN total_cost ELSE 0 END), 0) AS confirmed_revenue,
-                    AVG(CASE WHEN confirmed_at IS NOT NULL THEN TIMESTAMPDIFF(MINUTE, created_at, confirmed_at) END) AS avg_confirmation_minutes
-                FROM bookings;
-                """;
-
-        Query query = entityManager.createNativeQuery(sql);
-        Object[] result = (Object[]) query.getSingleResult();
-        return mapResultToResponse(result);
+        return toResponse(bookingRollupService.getTotals(Scope.GLOBAL, 0L));
     }
 
-    @Transactional(readOnly = true)
+    // Bookings the farmer owns the equipment for or accepted
     public AnalyticsResponse getFarmerAnalytics(Long farmerId) {
-        String sql = """
-                SELECT
-                    COUNT(*) AS total_bookings,
-                    SUM(CASE WHEN status = 'CONFIRMED' THEN 1 ELSE 0 END) AS confirmed_bookings,
-                    SUM(CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END) AS pending_bookings,
-                    SUM(CASE WHEN status = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelled_bookings,
-                    COALESCE(SUM(total_cost), 0) AS total_revenue,
-                    COALESCE(SUM(CASE WHEN status = 'CONFIRMED' THEN total_cost ELSE 0 END), 0) AS confirmed_revenue,
-                    AVG(CASE WHEN confirmed_at IS NOT NULL THEN TIMESTAMPDIFF(MINUTE, created_at, confirmed_at) END) AS avg_confirmation_minutes
-                FROM bookings
-                WHERE (owner_id = :farmerId OR accepted_owner_id = :farmerId);
-                """;
-
-        Query query = entityManager.createNativeQuery(sql);
-        query.setParameter("farmerId", farmerId);
-        Object[] result = (Object[]) query.getSingleResult();
-        return mapResultToResponse(result);
+        return toResponse(bookingRollupService.getTotals(Scope.FARMER, farmerId));
     }
 
-    private AnalyticsResponse mapResultToResponse(Object[] result) {
+    /**
+     * Series over [from, to] (inclusive) built from the daily rollups.
+     *
+     * @param farmerId the farmer to report on, or null for the whole platform
+     * @throws IllegalArgumentException for an empty or too long range
+     */
+    public AnalyticsSeriesResponse getSeries(Granularity granularity, LocalDate from, LocalDate to, Long farmerId) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        // One point per period, zero-filled so charts get a continuous axis
+        Map<LocalDate, SeriesAccumulator> periods = new TreeMap<>();
+        for (LocalDate period = granularity.periodStart(from); !period.isAfter(to); period = granularity.nextPeriod(period)) {
+            if (periods.size() == MAX_POINTS) {
+                throw new IllegalArgumentException("Range too long for " + granularity + " (max " + MAX_POINTS + " points)");
+            }
+            periods.put(period, new SeriesAccumulator(period));
+        }
+
+        List<DailyTotals> days = farmerId != null
+                ? bookingRollupService.getDailyTotals(Scope.FARMER, farmerId, from, to)
+                : bookingRollupService.getDailyTotals(Scope.GLOBAL, 0L, from, to);
+        for (DailyTotals day : days) {
+            periods.get(granularity.periodStart(day.day())).add(day.status(), day.totals());
+        }
+
+        AnalyticsSeriesResponse response = new AnalyticsSeriesResponse();
+        response.setGranularity(granularity.name());
+        response.setFrom(from);
+        response.setTo(to);
+        response.setFarmerId(farmerId);
+        List<AnalyticsSeriesResponse.Point> points = new ArrayList<>(periods.size());
+        periods.values().forEach(accumulator -> points.add(accumulator.toPoint()));
+        response.setPoints(points);
+        return response;
+    }
+
+    public BookingRollupService.RebuildResult rebuild() {
+        return bookingRollupService.rebuild();
+    }
+
+    private AnalyticsResponse toResponse(Map<String, StatusTotals> totalsByStatus) {
+        long totalBookings = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long confirmMinutes = 0;
+        long confirmCount = 0;
+        for (StatusTotals totals : totalsByStatus.values()) {
+            totalBookings += totals.bookingCount();
+            totalRevenue = totalRevenue.add(nonNull(totals.revenue()));
+            confirmMinutes += totals.confirmMinutesSum();
+            confirmCount += totals.confirmCount();
+        }
+
+        StatusTotals confirmed = totalsByStatus.get("CONFIRMED");
         AnalyticsResponse response = new AnalyticsResponse();
-        response.setTotalBookings(((Number) result[0]).longValue());
-        response.setConfirmedBookings(((Number) result[1]).longValue());
-        response.setPendingBookings(((Number) result[2]).longValue());
-        response.setCancelledBookings(((Number) result[3]).longValue());
-        response.setTotalRevenue(toBigDecimal(result[4]));
-        response.setConfirmedRevenue(toBigDecimal(result[5]));
-        response.setAverageConfirmationTimeMinutes(result[6] != null ? ((Number) result[6]).doubleValue() : null);
+        response.setTotalBookings(totalBookings);
+        response.setConfirmedBookings(countOf(confirmed));
+        response.setPendingBookings(countOf(totalsByStatus.get("PENDING")));
+        response.setCancelledBookings(countOf(totalsByStatus.get("CANCELLED")));
+        response.setTotalRevenue(totalRevenue);
+        response.setConfirmedRevenue(confirmed != null ? nonNull(confirmed.revenue()) : BigDecimal.ZERO);
+        response.setAverageConfirmationTimeMinutes(confirmCount > 0 ? (double) confirmMinutes / confirmCount : null);
         return response;
     }
 
-    private BigDecimal toBigDecimal(Object value) {
-        if (value == null) {
-            return BigDecimal.ZERO;
+    private static final class SeriesAccumulator {
+        private final AnalyticsSeriesResponse.Point point = new AnalyticsSeriesResponse.Point();
+        private long confirmMinutes;
+        private long confirmCount;
+
+        SeriesAccumulator(LocalDate periodStart) {
+            point.setPeriodStart(periodStart);
         }
-        if (value instanceof BigDecimal) {
-            return (BigDecimal) value;
+
+        void add(String status, StatusTotals totals) {
+            BigDecimal revenue = totals.revenue() != null ? totals.revenue() : BigDecimal.ZERO;
+            point.setTotalBookings(point.getTotalBookings() + totals.bookingCount());
+            point.getBookingsByStatus().merge(status, totals.bookingCount(), Long::sum);
+            point.setRevenue(point.getRevenue().add(revenue));
+            if ("CONFIRMED".equals(status)) {
+                point.setConfirmedRevenue(point.getConfirmedRevenue().add(revenue));
+            }
+            confirmMinutes += totals.confirmMinutesSum();
+            confirmCount += totals.confirmCount();
         }
-        if (value instanceof Number number) {
-            return BigDecimal.valueOf(number.doubleValue());
+
+        AnalyticsSeriesResponse.Point toPoint() {
+            point.setAverageConfirmationTimeMinutes(confirmCount > 0 ? (double) confirmMinutes / confirmCount : null);
+            return point;
         }
-        return BigDecimal.ZERO;
     }
-}
\ No newline at end of file
+
+    private long countOf(StatusTotals totals) {
+        return totals != null ? totals.bookingCount() : 0L;
+    }
+
+    private BigDecimal nonNull(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,143 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.dto.BookingExportRow;
+import com.farmtech.backend.repository.BookingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes bookings straight from a database cursor to the HTTP response, one row at a time.
+ * Rows are flat DTOs (no entities), so heap use does not grow with the size of the export.
+ */
+@Service
+public class BookingExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public BookingExportService(BookingRepository bookingRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @param from   first creation date to include (inclusive), or null
+     * @param to     last creation date to include (inclusive), or null
+     * @param status booking status to match, or null for all
+     * @return number of rows written
+     */
+    public long export(Format format, LocalDate from, LocalDate to, String status, OutputStream out) {
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        String statusFilter = status != null && !status.isBlank() ? status.trim().toUpperCase() : null;
+
+        Long written = readOnlyTransaction.execute(tx -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            long count = 0;
+            try (Stream<BookingExportRow> rows = bookingRepository.streamForExport(fromTime, toTime, statusFilter)) {
+                if (format == Format.CSV) {
+                    writeCsvLine(writer, BookingExportRow.CSV_HEADER);
+                }
+                Iterator<BookingExportRow> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    BookingExportRow row = iterator.next();
+                    if (format == Format.CSV) {
+                        writeCsvLine(writer, row.toCsvValues());
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                    if (++count % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+        System.out.println("📤 [BookingExport] Wrote " + written + " bookings as " + format);
+        return written != null ? written : 0L;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value != null) {
+                writeCsvField(writer, value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,134 @@
+package com.farmtech.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Server-sent events for booking changes, keyed by Farmer ID.
+ * Dashboards keep one stream open and refetch only when an event names them, instead of
+ * polling every 30 seconds. Events are published inside the booking transaction and only
+ * pushed once it commits, so a client never refetches before the change is visible.
+ */
+@Service
+public class BookingPushService {
+
+    public enum EventType {
+        INVITATION,  // owner was invited to a new booking
+        ACCEPTED,    // booking confirmed (sent to renter and accepting owner)
+        EXPIRED      // owner's invitation is no longer open
+    }
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, Set<SseEmitter>> emittersByFarmerId = new ConcurrentHashMap<>();
+
+    @Value("${push.sse.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    public BookingPushService(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public SseEmitter subscribe(Long farmerId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Set<SseEmitter> emitters = emittersByFarmerId.computeIfAbsent(farmerId, id -> new CopyOnWriteArraySet<>());
+        emitters.add(emitter);
+
+        Runnable remove = () -> removeEmitter(farmerId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        try {
+            // Lets the client know the stream is live so it can stop polling
+            emitter.send(SseEmitter.event().name("CONNECTED").data(Map.of("farmerId", farmerId)));
+        } catch (IOException e) {
+            remove.run();
+        }
+        System.out.println("📡 [Push] Farmer " + farmerId + " subscribed (" + emitters.size() + " streams)");
+        return emitter;
+    }
+
+    /**
+     * Queues an event for the given farmers; it is delivered after the surrounding transaction commits.
+     */
+    public void publish(EventType type, Long bookingId, String status, Collection<Long> farmerIds) {
+        if (farmerIds == null || farmerIds.isEmpty()) {
+            return;
+        }
+        eventPublisher.publishEvent(new BookingPushEvent(type, bookingId, status, List.copyOf(new LinkedHashSet<>(farmerIds))));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingPushEvent(BookingPushEvent event) {
+        Map<String, Object> payload = Map.of(
+                "type", event.type().name(),
+                "bookingId", event.bookingId(),
+                "status", event.status() != null ? event.status() : "",
+                "timestamp", LocalDateTime.now().toString()
+        );
+        int delivered = 0;
+        for (Long farmerId : event.farmerIds()) {
+            Set<SseEmitter> emitters = emittersByFarmerId.get(farmerId);
+            if (emitters == null) {
+                continue;
+            }
+            for (SseEmitter emitter : emitters) {
+                if (send(farmerId, emitter, SseEmitter.event().name(event.type().name()).data(payload, MediaType.APPLICATION_JSON))) {
+                    delivered++;
+                }
+            }
+        }
+        if (delivered > 0) {
+            System.out.println("📡 [Push] " + event.type() + " for booking " + event.bookingId() + " -> " + delivered + " streams");
+        }
+    }
+
+    // Comment lines keep idle connections open through proxies and surface dead clients
+    @Scheduled(fixedDelayString = "${push.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        emittersByFarmerId.forEach((farmerId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                send(farmerId, emitter, SseEmitter.event().comment("keep-alive"));
+            }
+        });
+    }
+
+    public int connectionCount() {
+        return emittersByFarmerId.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private boolean send(Long farmerId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            removeEmitter(farmerId, emitter);
+            return false;
+        }
+    }
+
+    private void removeEmitter(Long farmerId, SseEmitter emitter) {
+        emittersByFarmerId.computeIfPresent(farmerId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    public record BookingPushEvent(EventType type, Long bookingId, String status, List<Long> farmerIds) {}
+}
@@ -0,0 +1,374 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.Booking;
+import com.farmtech.backend.entity.BookingRollup.Scope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Keeps booking_rollups (all-time totals) and booking_daily_rollups (totals per creation day) in
+ * step with bookings.
+ *
+ * Every code path that inserts, deletes or changes a booking passes the row as it was before
+ * ({@link Snapshot}) and as it is after; the before row is subtracted from and the after row added
+ * to the GLOBAL and FARMER (owner and accepted owner) totals, in the caller's transaction. Snapshots
+ * must describe the row actually being changed: take them from an entity guarded by @Version, with
+ * one of the lockSnapshot* methods before a bulk UPDATE, or with readSnapshot before an UPDATE that
+ * is conditional on the values read.
+ */
+@Service
+public class BookingRollupService {
+
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+
+    private static final String SNAPSHOT_SELECT =
+            "SELECT id, status, owner_id, accepted_owner_id, total_cost, created_at, confirmed_at FROM bookings ";
+
+    private static final String UPSERT =
+            "INSERT INTO booking_rollups (scope_type, scope_id, status, slot, booking_count, revenue, confirm_minutes_sum, confirm_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE booking_count = booking_count + VALUES(booking_count), " +
+            "revenue = revenue + VALUES(revenue), " +
+            "confirm_minutes_sum = confirm_minutes_sum + VALUES(confirm_minutes_sum), " +
+            "confirm_count = confirm_count + VALUES(confirm_count)";
+
+    private static final String UPSERT_DAILY =
+            "INSERT INTO booking_daily_rollups (scope_type, scope_id, bucket_date, status, slot, booking_count, revenue, confirm_minutes_sum, confirm_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE booking_count = booking_count + VALUES(booking_count), " +
+            "revenue = revenue + VALUES(revenue), " +
+            "confirm_minutes_sum = confirm_minutes_sum + VALUES(confirm_minutes_sum), " +
+            "confirm_count = confirm_count + VALUES(confirm_count)";
+
+    // Booking columns the rebuild aggregates, with one row per farmer a booking counts for:
+    // the owner, plus the accepted owner when it is someone else
+    private static final String REBUILD_FARMER_SOURCE =
+            "(SELECT owner_id AS farmer_id, DATE(created_at) AS bucket_date, COALESCE(status, 'UNKNOWN') AS status, total_cost, " +
+            "   TIMESTAMPDIFF(MINUTE, created_at, confirmed_at) AS confirm_minutes FROM bookings " +
+            " UNION ALL " +
+            " SELECT accepted_owner_id, DATE(created_at), COALESCE(status, 'UNKNOWN'), total_cost, " +
+            "   TIMESTAMPDIFF(MINUTE, created_at, confirmed_at) FROM bookings " +
+            " WHERE accepted_owner_id IS NOT NULL AND accepted_owner_id <> owner_id) f ";
+
+    private static final String REBUILD_MEASURES =
+            "COUNT(*), COALESCE(SUM(%1$s.total_cost), 0), COALESCE(SUM(%1$s.confirm_minutes), 0), COUNT(%1$s.confirm_minutes) ";
+
+    private static final RowMapper<Snapshot> SNAPSHOT_MAPPER = (rs, rowNum) -> new Snapshot(
+            rs.getLong("id"),
+            rs.getString("status"),
+            rs.getObject("owner_id", Long.class),
+            rs.getObject("accepted_owner_id", Long.class),
+            rs.getObject("total_cost", Double.class),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("confirmed_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int globalSlots;
+
+    public BookingRollupService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${analytics.rollup.global-slots:8}") int globalSlots) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.globalSlots = Math.max(1, globalSlots);
+    }
+
+    // Databases that had bookings before a rollup table existed are filled once on startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        Boolean hasBookings = jdbcTemplate.queryForObject("SELECT EXISTS(SELECT 1 FROM bookings)", Boolean.class);
+        Boolean hasRollups = jdbcTemplate.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM booking_rollups) AND EXISTS(SELECT 1 FROM booking_daily_rollups)", Boolean.class);
+        if (Boolean.TRUE.equals(hasBookings) && !Boolean.TRUE.equals(hasRollups)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Plain (non-locking) read of a booking. Only use it as the before row of an UPDATE whose WHERE
+     * clause re-checks the columns read here, so the UPDATE matching proves the snapshot was current.
+     */
+    public Optional<Snapshot> readSnapshot(Long bookingId) {
+        return jdbcTemplate.query(SNAPSHOT_SELECT + "WHERE id = ?", SNAPSHOT_MAPPER, bookingId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Locking (current) read of a booking. Under REPEATABLE READ a second readSnapshot in the same
+     * transaction returns the same stale row, so a conditional UPDATE that missed re-reads with this.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Snapshot> lockSnapshot(Long bookingId) {
+        return jdbcTemplate.query(SNAPSHOT_SELECT + "WHERE id = ? FOR UPDATE", SNAPSHOT_MAPPER, bookingId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Locks the unaccepted bookings among {@code bookingIds} that are in {@code status}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Snapshot> lockUnacceptedSnapshots(Collection<Long> bookingIds, String status) {
+        if (bookingIds.isEmpty()) {
+            return List.of();
+        }
+        return namedJdbcTemplate.query(
+                SNAPSHOT_SELECT + "WHERE id IN (:ids) AND status = :status AND accepted_owner_id IS NULL ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", bookingIds).addValue("status", status),
+                SNAPSHOT_MAPPER);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Snapshot> lockSnapshotsForEquipment(Long equipmentId) {
+        return jdbcTemplate.query(SNAPSHOT_SELECT + "WHERE equipment_id = ? ORDER BY id FOR UPDATE", SNAPSHOT_MAPPER, equipmentId);
+    }
+
+    /**
+     * @param before the booking before the change, or null when it was just created
+     * @param after  the booking after the change, or null when it was deleted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Snapshot before, Snapshot after) {
+        recordTransitions(before != null ? List.of(before) : List.of(), after != null ? List.of(after) : List.of());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitions(Collection<Snapshot> removed, Collection<Snapshot> added) {
+        // Sorted so concurrent transactions lock rollup rows in the same order
+        Map<RowKey, Delta> deltas = new TreeMap<>();
+        removed.forEach(snapshot -> accumulate(deltas, snapshot, -1));
+        added.forEach(snapshot -> accumulate(deltas, snapshot, 1));
+        deltas.values().removeIf(Delta::isZero);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> totalRows = new ArrayList<>();
+        List<Object[]> dailyRows = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (key.day() == null) {
+                totalRows.add(new Object[]{key.scope().name(), key.scopeId(), key.status(), key.slot(),
+                        delta.count, delta.revenue, delta.confirmMinutes, delta.confirmCount});
+            } else {
+                dailyRows.add(new Object[]{key.scope().name(), key.scopeId(), Date.valueOf(key.day()), key.status(), key.slot(),
+                        delta.count, delta.revenue, delta.confirmMinutes, delta.confirmCount});
+            }
+        });
+        if (!totalRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT, totalRows);
+        }
+        if (!dailyRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_DAILY, dailyRows);
+        }
+    }
+
+    /**
+     * Totals per status for one scope; a few rows whatever the size of bookings.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, StatusTotals> getTotals(Scope scope, Long scopeId) {
+        Map<String, StatusTotals> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT status, SUM(booking_count), SUM(revenue), SUM(confirm_minutes_sum), SUM(confirm_count) " +
+                "FROM booking_rollups WHERE scope_type = ? AND scope_id = ? GROUP BY status",
+                rs -> {
+                    totals.put(rs.getString(1), new StatusTotals(
+                            rs.getLong(2), rs.getBigDecimal(3), rs.getLong(4), rs.getLong(5)));
+                },
+                scope.name(), scope == Scope.GLOBAL ? 0L : scopeId);
+        return totals;
+    }
+
+    /**
+     * Per-day, per-status totals for one scope, for days in [from, to].
+     */
+    @Transactional(readOnly = true)
+    public List<DailyTotals> getDailyTotals(Scope scope, Long scopeId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT bucket_date, status, SUM(booking_count), SUM(revenue), SUM(confirm_minutes_sum), SUM(confirm_count) " +
+                "FROM booking_daily_rollups WHERE scope_type = ? AND scope_id = ? AND bucket_date BETWEEN ? AND ? " +
+                "GROUP BY bucket_date, status ORDER BY bucket_date",
+                (rs, rowNum) -> new DailyTotals(
+                        rs.getDate(1).toLocalDate(),
+                        rs.getString(2),
+                        new StatusTotals(rs.getLong(3), rs.getBigDecimal(4), rs.getLong(5), rs.getLong(6))),
+                scope.name(), scope == Scope.GLOBAL ? 0L : scopeId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Recomputes every rollup row from bookings in one transaction. The INSERT ... SELECT statements
+     * hold shared locks on the bookings they read, so booking writes wait for the rebuild rather
+     * than being lost or counted twice.
+     */
+    public RebuildResult rebuild() {
+        long started = System.currentTimeMillis();
+        String globalSource =
+                "(SELECT DATE(created_at) AS bucket_date, COALESCE(status, 'UNKNOWN') AS status, MOD(id, " + globalSlots + ") AS slot, " +
+                "   total_cost, TIMESTAMPDIFF(MINUTE, created_at, confirmed_at) AS confirm_minutes FROM bookings) g ";
+        String globalMeasures = String.format(REBUILD_MEASURES, "g");
+        String farmerMeasures = String.format(REBUILD_MEASURES, "f");
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM booking_rollups");
+            jdbcTemplate.update("DELETE FROM booking_daily_rollups");
+            int inserted = jdbcTemplate.update(
+                    "INSERT INTO booking_rollups (scope_type, scope_id, status, slot, booking_count, revenue, confirm_minutes_sum, confirm_count) " +
+                    "SELECT 'GLOBAL', 0, g.status, g.slot, " + globalMeasures +
+                    "FROM " + globalSource + "GROUP BY g.status, g.slot");
+            inserted += jdbcTemplate.update(
+                    "INSERT INTO booking_rollups (scope_type, scope_id, status, slot, booking_count, revenue, confirm_minutes_sum, confirm_count) " +
+                    "SELECT 'FARMER', f.farmer_id, f.status, 0, " + farmerMeasures +
+                    "FROM " + REBUILD_FARMER_SOURCE + "GROUP BY f.farmer_id, f.status");
+            inserted += jdbcTemplate.update(
+                    "INSERT INTO booking_daily_rollups (scope_type, scope_id, bucket_date, status, slot, booking_count, revenue, confirm_minutes_sum, confirm_count) " +
+                    "SELECT 'GLOBAL', 0, g.bucket_date, g.status, g.slot, " + globalMeasures +
+                    "FROM " + globalSource + "GROUP BY g.bucket_date, g.status, g.slot");
+            inserted += jdbcTemplate.update(
+                    "INSERT INTO booking_daily_rollups (scope_type, scope_id, bucket_date, status, slot, booking_count, revenue, confirm_minutes_sum, confirm_count) " +
+                    "SELECT 'FARMER', f.farmer_id, f.bucket_date, f.status, 0, " + farmerMeasures +
+                    "FROM " + REBUILD_FARMER_SOURCE + "GROUP BY f.farmer_id, f.bucket_date, f.status");
+            return inserted;
+        });
+        RebuildResult result = new RebuildResult(rows != null ? rows : 0, System.currentTimeMillis() - started);
+        System.out.println("📊 [BookingRollup] Rebuilt " + result.rows() + " rollup rows in " + result.durationMillis() + " ms");
+        return result;
+    }
+
+    private void accumulate(Map<RowKey, Delta> deltas, Snapshot snapshot, int sign) {
+        String status = snapshot.status() != null ? snapshot.status() : UNKNOWN_STATUS;
+        int slot = (int) Math.floorMod(snapshot.bookingId(), (long) globalSlots);
+        // Daily buckets follow the creation day, which never changes, so a transition stays within one bucket
+        LocalDate day = snapshot.createdAt() != null ? snapshot.createdAt().toLocalDate() : null;
+        accumulate(deltas, new RowKey(Scope.GLOBAL, 0L, status, slot, null), snapshot, sign);
+        if (day != null) {
+            accumulate(deltas, new RowKey(Scope.GLOBAL, 0L, status, slot, day), snapshot, sign);
+        }
+        for (Long farmerId : farmerIds(snapshot)) {
+            accumulate(deltas, new RowKey(Scope.FARMER, farmerId, status, 0, null), snapshot, sign);
+            if (day != null) {
+                accumulate(deltas, new RowKey(Scope.FARMER, farmerId, status, 0, day), snapshot, sign);
+            }
+        }
+    }
+
+    private static void accumulate(Map<RowKey, Delta> deltas, RowKey key, Snapshot snapshot, int sign) {
+        deltas.computeIfAbsent(key, k -> new Delta()).add(snapshot, sign);
+    }
+
+    private static List<Long> farmerIds(Snapshot snapshot) {
+        List<Long> farmerIds = new ArrayList<>(2);
+        if (snapshot.ownerId() != null) {
+            farmerIds.add(snapshot.ownerId());
+        }
+        if (snapshot.acceptedOwnerId() != null && !snapshot.acceptedOwnerId().equals(snapshot.ownerId())) {
+            farmerIds.add(snapshot.acceptedOwnerId());
+        }
+        return farmerIds;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * The booking columns the rollups are computed from.
+     */
+    public record Snapshot(Long bookingId, String status, Long ownerId, Long acceptedOwnerId,
+                           Double totalCost, LocalDateTime createdAt, LocalDateTime confirmedAt) {
+
+        public static Snapshot of(Booking booking) {
+            return new Snapshot(
+                    booking.getId(),
+                    booking.getStatus(),
+                    booking.getOwner() != null ? booking.getOwner().getId() : null,
+                    booking.getAcceptedOwner() != null ? booking.getAcceptedOwner().getId() : null,
+                    booking.getTotalCost(),
+                    booking.getCreatedAt(),
+                    booking.getConfirmedAt());
+        }
+
+        public Snapshot withStatus(String newStatus) {
+            return new Snapshot(bookingId, newStatus, ownerId, acceptedOwnerId, totalCost, createdAt, confirmedAt);
+        }
+
+        // Same columns BookingRepository.confirmIfUnaccepted writes
+        public Snapshot confirmedBy(Long acceptingOwnerId, LocalDateTime at) {
+            return new Snapshot(bookingId, "CONFIRMED", ownerId, acceptingOwnerId, totalCost, createdAt, at);
+        }
+    }
+
+    public record StatusTotals(long bookingCount, BigDecimal revenue, long confirmMinutesSum, long confirmCount) {
+    }
+
+    public record DailyTotals(LocalDate day, String status, StatusTotals totals) {
+    }
+
+    public record RebuildResult(int rows, long durationMillis) {
+    }
+
+    // day is null for the all-time row
+    private record RowKey(Scope scope, long scopeId, String status, int slot, LocalDate day) implements Comparable<RowKey> {
+
+        private static final Comparator<RowKey> ORDER = Comparator.comparing(RowKey::scope)
+                .thenComparingLong(RowKey::scopeId)
+                .thenComparing(RowKey::day, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(RowKey::status)
+                .thenComparingInt(RowKey::slot);
+
+        @Override
+        public int compareTo(RowKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Delta {
+        private long count;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long confirmMinutes;
+        private long confirmCount;
+
+        void add(Snapshot snapshot, int sign) {
+            count += sign;
+            if (snapshot.totalCost() != null) {
+                BigDecimal cost = BigDecimal.valueOf(snapshot.totalCost()).setScale(2, RoundingMode.HALF_UP);
+                revenue = revenue.add(sign > 0 ? cost : cost.negate());
+            }
+            // Whole minutes, truncated like TIMESTAMPDIFF(MINUTE, ...)
+            if (snapshot.createdAt() != null && snapshot.confirmedAt() != null) {
+                confirmMinutes += sign * Duration.between(snapshot.createdAt(), snapshot.confirmedAt()).toMinutes();
+                confirmCount += sign;
+            }
+        }
+
+        boolean isZero() {
+            return count == 0 && revenue.signum() == 0 && confirmMinutes == 0 && confirmCount == 0;
+        }
+    }
+}
@@ -3,24 +3,94 @@ package com.farmtech.backend.service;
 import com.farmtech.backend.entity.Booking;
 import com.farmtech.backend.entity.BookingCandidate;
 import com.farmtech.backend.entity.BookingCandidate.CandidateStatus;
+import com.farmtech.backend.entity.Farmer;
 import com.farmtech.backend.repository.BookingCandidateRepository;
 import com.farmtech.backend.repository.BookingRepository;
+import com.farmtech.backend.repository.FarmerRepository;
+import com.farmtech.backend.service.BookingRollupService.Snapshot;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CandidateDispatchService {
 
+    // The first attempt uses a plain read; retries re-read under a row lock, so a second one never misses
+    private static final int MAX_CONFIRM_ATTEMPTS = 3;
+
     private final BookingCandidateRepository candidateRepository;
     private final BookingRepository bookingRepository;
+    private final BookingPushService bookingPushService;
+    private final InvitationTimeoutScheduler invitationTimeoutScheduler;
+    private final BookingRollupService bookingRollupService;
+    private final LatencyStatsService latencyStatsService;
+    private final CandidateSelectionService candidateSelectionService;
+    private final FarmerRepository farmerRepository;
 
     public CandidateDispatchService(BookingCandidateRepository candidateRepository,
-                                    BookingRepository bookingRepository) {
+                                    BookingRepository bookingRepository,
+                                    BookingPushService bookingPushService,
+                                    InvitationTimeoutScheduler invitationTimeoutScheduler,
+                                    BookingRollupService bookingRollupService,
+                                    LatencyStatsService latencyStatsService,
+                                    CandidateSelectionService candidateSelectionService,
+                                    FarmerRepository farmerRepository) {
         this.candidateRepository = candidateRepository;
         this.bookingRepository = bookingRepository;
+        this.bookingPushService = bookingPushService;
+        this.invitationTimeoutScheduler = invitationTimeoutScheduler;
+        this.bookingRollupService = bookingRollupService;
+        this.latencyStatsService = latencyStatsService;
+        this.candidateSelectionService = candidateSelectionService;
+        this.farmerRepository = farmerRepository;
+    }
+
+    /**
+     * Invites the owners selected for a new booking: one NOTIFIED candidate each, then the push/timeout bookkeeping.
+     */
+    @Transactional
+    public void inviteOwners(Booking booking) {
+        System.out.println("=== CREATING CANDIDATE ENTRIES ===");
+        System.out.println("Booking ID: " + booking.getId());
+
+        // Owner ID -> distance, already ranked nearest first
+        Map<Long, Double> distanceByOwner = candidateSelectionService.selectOwners(booking);
+        List<BookingCandidate> candidates = createCandidates(booking, distanceByOwner, LocalDateTime.now());
+        System.out.println("✅ " + candidates.size() + " candidates saved to database");
+        notifyCandidatesSimultaneously(booking.getId());
+    }
+
+    /**
+     * Stores a NOTIFIED candidate for each owner in {@code distanceByOwner} that still exists. Owners are
+     * loaded with one query and the rows go out in batched INSERTs (ids come from the pooled generator).
+     */
+    @Transactional
+    public List<BookingCandidate> createCandidates(Booking booking, Map<Long, Double> distanceByOwner, LocalDateTime invitedAt) {
+        Map<Long, Farmer> ownersById = farmerRepository.findAllById(distanceByOwner.keySet()).stream()
+                .collect(Collectors.toMap(Farmer::getId, Function.identity()));
+
+        List<BookingCandidate> candidates = new ArrayList<>(distanceByOwner.size());
+        distanceByOwner.forEach((ownerId, distanceKm) -> {
+            Farmer owner = ownersById.get(ownerId);
+            if (owner == null) {
+                return;
+            }
+            BookingCandidate candidate = new BookingCandidate();
+            candidate.setBooking(booking);
+            candidate.setOwner(owner);
+            candidate.setDistanceKm(distanceKm);
+            candidate.setStatus(CandidateStatus.NOTIFIED);
+            candidate.setInvitedAt(invitedAt);
+            candidates.add(candidate);
+        });
+        return candidateRepository.saveAll(candidates);
     }
 
     @Transactional
@@ -37,58 +107,100 @@ public class CandidateDispatchService {
                 List.of(CandidateStatus.NOTIFIED)
         );
 
+        Snapshot before = Snapshot.of(booking);
         if (notifiedCandidates.isEmpty()) {
             booking.setStatus("PENDING_NO_CANDIDATES");
             bookingRepository.save(booking);
+            bookingRollupService.recordTransition(before, Snapshot.of(booking));
             return;
         }
 
         booking.setStatus("AWAITING_OWNER");
         bookingRepository.save(booking);
-        // TODO: trigger real-time notifications or SMS here
+        bookingRollupService.recordTransition(before, Snapshot.of(booking));
+        invitationTimeoutScheduler.schedule(bookingId, notifiedCandidates.get(notifiedCandidates.size() - 1).getInvitedAt());
+        bookingPushService.publish(BookingPushService.EventType.INVITATION, bookingId, booking.getStatus(),
+                notifiedCandidates.stream().map(candidate -> candidate.getOwner().getId()).toList());
     }
 
     @Transactional
     public Booking markAccepted(BookingCandidate candidate) {
-        Booking booking = candidate.getBooking();
+        Long bookingId = candidate.getBooking().getId();
+        LocalDateTime now = LocalDateTime.now();
 
-        if (booking.getAcceptedOwner() != null) {
+        if (!confirmForOwner(bookingId, candidate.getOwner(), now)) {
             throw new IllegalStateException("Booking is already confirmed with another owner");
         }
 
+        candidateRepository.markOwnerAccepted(bookingId, candidate.getOwner().getId(), CandidateStatus.ACCEPTED, now);
+        latencyStatsService.recordOwnerResponse(candidate.getOwner().getId(), candidate.getInvitedAt(), now);
         candidate.setStatus(CandidateStatus.ACCEPTED);
-        candidate.setRespondedAt(LocalDateTime.now());
-        candidateRepository.save(candidate);
+        candidate.setRespondedAt(now);
+        candidate.setAcceptedAt(now);
 
-        booking.setAcceptedOwner(candidate.getOwner());
-        booking.setStatus("CONFIRMED");
-        bookingRepository.save(booking);
-
-        revokeOtherCandidates(booking, candidate.getId());
+        revokeOtherCandidates(bookingId, candidate.getId());
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+        afterAccepted(booking, candidate.getOwner().getId());
         return booking;
     }
 
+    /**
+     * Confirms the booking for this owner if nobody accepted it yet, and moves its analytics rollups along.
+     *
+     * @return false when the booking does not exist or another owner accepted it first
+     */
+    @Transactional
+    public boolean confirmForOwner(Long bookingId, Farmer owner, LocalDateTime now) {
+        // Plain read, no row lock: the UPDATE below only matches while the row still looks like this
+        Optional<Snapshot> before = bookingRollupService.readSnapshot(bookingId);
+        for (int attempt = 1; ; attempt++) {
+            if (before.isEmpty() || before.get().acceptedOwnerId() != null) {
+                return false;
+            }
+            // Conditional update instead of check-then-write: only one concurrent accept can match
+            if (bookingRepository.confirmIfUnaccepted(bookingId, owner, before.get().status(), now) == 1) {
+                bookingRollupService.recordTransition(before.get(), before.get().confirmedBy(owner.getId(), now));
+                latencyStatsService.recordConfirmation(before.get().createdAt(), now);
+                return true;
+            }
+            if (attempt == MAX_CONFIRM_ATTEMPTS) {
+                System.err.println("❌ [Dispatch] Booking " + bookingId + " kept changing, giving up confirming it for owner " + owner.getId());
+                return false;
+            }
+            // Missed: another accept won, or only the status moved (timeout sweep, reject). The locked
+            // re-read sees the latest row and holds it, so the next UPDATE decides for certain.
+            before = bookingRollupService.lockSnapshot(bookingId);
+        }
+    }
+
+    /**
+     * Stops the invitation timeout and pushes ACCEPTED to the renter and the winning owner,
+     * EXPIRED to every other invited owner.
+     */
+    public void afterAccepted(Booking booking, Long acceptedOwnerId) {
+        invitationTimeoutScheduler.cancel(booking.getId());
+        List<Long> otherOwnerIds = candidateRepository.findOwnerIdsByBookingId(booking.getId()).stream()
+                .filter(ownerId -> !ownerId.equals(acceptedOwnerId))
+                .toList();
+        bookingPushService.publish(BookingPushService.EventType.EXPIRED, booking.getId(), booking.getStatus(), otherOwnerIds);
+        bookingPushService.publish(BookingPushService.EventType.ACCEPTED, booking.getId(), booking.getStatus(),
+                List.of(booking.getRenter().getId(), acceptedOwnerId));
+    }
+
     @Transactional
     public void markRejected(BookingCandidate candidate) {
         candidate.setStatus(CandidateStatus.REJECTED);
         candidate.setRespondedAt(LocalDateTime.now());
         candidateRepository.save(candidate);
+        latencyStatsService.recordOwnerResponse(candidate.getOwner().getId(), candidate.getInvitedAt(), candidate.getRespondedAt());
     }
 
-    private void revokeOtherCandidates(Booking booking, Long acceptedCandidateId) {
+    private void revokeOtherCandidates(Long bookingId, Long acceptedCandidateId) {
         LocalDateTime now = LocalDateTime.now();
-        candidateRepository.findByBookingOrderByDistanceKmAsc(booking).stream()
-                .filter(other -> !other.getId().equals(acceptedCandidateId))
-                .forEach(other -> {
-                    if (other.getStatus() == CandidateStatus.NOTIFIED) {
-                        other.setStatus(CandidateStatus.SKIPPED_TIMEOUT);
-                        other.setRespondedAt(now);
-                    } else if (other.getStatus() == CandidateStatus.PENDING) {
-                        other.setStatus(CandidateStatus.SKIPPED_TIMEOUT);
-                        other.setInvitedAt(now);
-                        other.setRespondedAt(now);
-                    }
-                    candidateRepository.save(other);
-                });
+        candidateRepository.revokeNotifiedCandidates(bookingId, acceptedCandidateId,
+                CandidateStatus.NOTIFIED, CandidateStatus.SKIPPED_TIMEOUT, now);
+        candidateRepository.revokePendingCandidates(bookingId, acceptedCandidateId,
+                CandidateStatus.PENDING, CandidateStatus.SKIPPED_TIMEOUT, now);
     }
-}
\ No newline at end of file
+}
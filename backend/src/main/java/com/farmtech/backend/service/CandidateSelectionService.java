@@ -0,0 +1,141 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.Booking;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decides which owners get a BookingCandidate row for a new booking.
+ * Picks the nearest {@code maxCandidates} owners within the search radius and widens the
+ * radius (up to {@code maxRadiusKm}) while fewer than {@code minCandidates} qualify.
+ * Bookings without coordinates are placed by a pincode/place in their location text, or the
+ * renter's village, through the offline {@link Gazetteer}.
+ */
+@Service
+public class CandidateSelectionService {
+
+    // Radius lookups per booking are bounded even when the growth factor is barely above 1
+    private static final int MAX_WIDENING_STEPS = 8;
+
+    private final OwnerLocationIndex ownerLocationIndex;
+    private final Gazetteer gazetteer;
+
+    @Value("${booking.candidates.radius-km:50}")
+    private double searchRadiusKm;
+
+    @Value("${booking.candidates.max-radius-km:200}")
+    private double maxRadiusKm;
+
+    @Value("${booking.candidates.radius-growth-factor:2.0}")
+    private double radiusGrowthFactor;
+
+    @Value("${booking.candidates.max-count:25}")
+    private int maxCandidates;
+
+    @Value("${booking.candidates.min-count:3}")
+    private int minCandidates;
+
+    public CandidateSelectionService(OwnerLocationIndex ownerLocationIndex, Gazetteer gazetteer) {
+        this.ownerLocationIndex = ownerLocationIndex;
+        this.gazetteer = gazetteer;
+    }
+
+    @PostConstruct
+    void validateConfig() {
+        if (!(searchRadiusKm > 0)) {
+            throw new IllegalStateException("booking.candidates.radius-km must be > 0, was " + searchRadiusKm);
+        }
+        if (!(maxRadiusKm >= searchRadiusKm)) {
+            throw new IllegalStateException("booking.candidates.max-radius-km must be >= radius-km (" + searchRadiusKm
+                    + "), was " + maxRadiusKm);
+        }
+        if (!(radiusGrowthFactor > 1)) {
+            throw new IllegalStateException("booking.candidates.radius-growth-factor must be > 1, was " + radiusGrowthFactor);
+        }
+        if (maxCandidates < 1 || minCandidates < 0) {
+            throw new IllegalStateException("booking.candidates.max-count must be >= 1 and min-count >= 0, were "
+                    + maxCandidates + " and " + minCandidates);
+        }
+    }
+
+    /**
+     * @return owner (Farmer) ID to distance in km, nearest first. Owners without coordinates
+     *         are reported with a distance of 0.0 and only used to top up a short list.
+     */
+    public Map<Long, Double> selectOwners(Booking booking) {
+        Long excludedOwnerId = booking.getOwner() != null ? booking.getOwner().getId() : null;
+        Map<Long, Double> selected = new LinkedHashMap<>();
+
+        Double latitude = booking.getLocationLatitude();
+        Double longitude = booking.getLocationLongitude();
+        if (latitude == null || longitude == null) {
+            Optional<GeocodingService.Coordinates> coarse = gazetteer.locate(null,
+                    booking.getRenter() != null ? booking.getRenter().getVillage() : null,
+                    booking.getLocation());
+            if (coarse.isPresent()) {
+                latitude = coarse.get().latitude();
+                longitude = coarse.get().longitude();
+                System.out.println("🔎 [CandidateSelection] Booking " + booking.getId() + " has no coordinates, using gazetteer position");
+            }
+        }
+        if (latitude != null && longitude != null) {
+            double radius = searchRadiusKm;
+            // One extra slot so excluding the equipment owner never costs a candidate
+            List<OwnerLocationIndex.Neighbor> nearest = ownerLocationIndex.findNearest(latitude, longitude, radius, maxCandidates + 1);
+            int found = countExcluding(nearest, excludedOwnerId);
+            for (int step = 0; found < minCandidates && radius < maxRadiusKm && step < MAX_WIDENING_STEPS; step++) {
+                // The last step goes straight to the maximum radius
+                radius = step == MAX_WIDENING_STEPS - 1 ? maxRadiusKm : Math.min(maxRadiusKm, radius * radiusGrowthFactor);
+                System.out.println("🔎 [CandidateSelection] Only " + found + " owners found, widening radius to " + radius + " km");
+                nearest = ownerLocationIndex.findNearest(latitude, longitude, radius, maxCandidates + 1);
+                found = countExcluding(nearest, excludedOwnerId);
+            }
+            for (OwnerLocationIndex.Neighbor neighbor : nearest) {
+                if (selected.size() >= maxCandidates) {
+                    break;
+                }
+                if (!neighbor.farmerId().equals(excludedOwnerId)) {
+                    selected.put(neighbor.farmerId(), neighbor.distanceKm());
+                }
+            }
+            if (selected.size() < minCandidates) {
+                topUp(selected, ownerLocationIndex.unlocatedOwnerIds(), excludedOwnerId);
+            }
+        } else {
+            // Without a booking location there is nothing to rank by
+            topUp(selected, ownerLocationIndex.unlocatedOwnerIds(), excludedOwnerId);
+            topUp(selected, ownerLocationIndex.allOwnerIds(), excludedOwnerId);
+        }
+
+        System.out.println("🔎 [CandidateSelection] Selected " + selected.size() + " of " + ownerLocationIndex.size()
+                + " indexed owners for booking " + booking.getId());
+        return selected;
+    }
+
+    private void topUp(Map<Long, Double> selected, List<Long> ownerIds, Long excludedOwnerId) {
+        for (Long ownerId : ownerIds) {
+            if (selected.size() >= maxCandidates) {
+                return;
+            }
+            if (!ownerId.equals(excludedOwnerId)) {
+                selected.putIfAbsent(ownerId, 0.0);
+            }
+        }
+    }
+
+    private static int countExcluding(List<OwnerLocationIndex.Neighbor> neighbors, Long excludedOwnerId) {
+        int count = 0;
+        for (OwnerLocationIndex.Neighbor neighbor : neighbors) {
+            if (!neighbor.farmerId().equals(excludedOwnerId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,316 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.BackfillCheckpoint;
+import com.farmtech.backend.entity.BackfillCheckpoint.JobStatus;
+import com.farmtech.backend.repository.BackfillCheckpointRepository;
+import com.farmtech.backend.service.GeocodingService.Coordinates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin-triggered job that fills in missing (null or 0.0/0.0) coordinates on farmers, then users.
+ *
+ * Rows are read in keyset chunks of {@code backfill.coordinates.chunk-size} and geocoded by
+ * {@code backfill.coordinates.parallelism} threads that share a token bucket of
+ * {@code backfill.coordinates.rate-per-second} Geocoding API calls. Each chunk's coordinates are
+ * written with one batched UPDATE, in the same transaction as the job's checkpoint row, so after a
+ * restart the job continues after the last committed chunk (it resumes by itself if it was running).
+ * Rows nothing could be found for are skipped and counted as unresolved. When done, the owner
+ * location index is rebuilt.
+ */
+@Service
+public class CoordinateBackfillService {
+
+    private static final String MISSING_COORDINATES =
+            "(%1$s.latitude IS NULL OR %1$s.longitude IS NULL OR (%1$s.latitude = 0 AND %1$s.longitude = 0))";
+
+    private static final List<Table> TABLES = List.of(
+            new Table("coordinates:farmers",
+                    "SELECT f.id, f.address, f.village, u.pincode, u.district, u.state FROM farmers f " +
+                    "LEFT JOIN users u ON u.phone = f.phone " +
+                    "WHERE f.id > ? AND " + String.format(MISSING_COORDINATES, "f") + " ORDER BY f.id LIMIT ?",
+                    "UPDATE farmers f SET f.latitude = ?, f.longitude = ? WHERE f.id = ? AND " + String.format(MISSING_COORDINATES, "f")),
+            new Table("coordinates:users",
+                    "SELECT u.id, u.address, u.village, u.pincode, u.district, u.state FROM users u " +
+                    "WHERE u.id > ? AND " + String.format(MISSING_COORDINATES, "u") + " ORDER BY u.id LIMIT ?",
+                    "UPDATE users u SET u.latitude = ?, u.longitude = ? WHERE u.id = ? AND " + String.format(MISSING_COORDINATES, "u")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final GeocodingService geocodingService;
+    private final OwnerLocationIndex ownerLocationIndex;
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final double ratePerSecond;
+    private final boolean acceptApproximate;
+
+    private final Object lock = new Object();
+    private Thread runner;
+    private volatile String currentJob;
+    private volatile long runStartedNanos;
+    private final AtomicLong processedThisRun = new AtomicLong();
+    private final AtomicLong apiCallsThisRun = new AtomicLong();
+
+    public CoordinateBackfillService(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     BackfillCheckpointRepository checkpointRepository,
+                                     GeocodingService geocodingService,
+                                     OwnerLocationIndex ownerLocationIndex,
+                                     @Value("${backfill.coordinates.chunk-size:200}") int chunkSize,
+                                     @Value("${backfill.coordinates.parallelism:4}") int parallelism,
+                                     @Value("${backfill.coordinates.rate-per-second:10}") double ratePerSecond,
+                                     @Value("${backfill.coordinates.accept-approximate:true}") boolean acceptApproximate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointRepository = checkpointRepository;
+        this.geocodingService = geocodingService;
+        this.ownerLocationIndex = ownerLocationIndex;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.ratePerSecond = ratePerSecond;
+        this.acceptApproximate = acceptApproximate;
+    }
+
+    // A run that was cut short by a restart picks up from its checkpoint
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        boolean interrupted = TABLES.stream()
+                .map(table -> checkpointRepository.findById(table.jobName()))
+                .anyMatch(checkpoint -> checkpoint.isPresent() && checkpoint.get().getStatus() == JobStatus.RUNNING);
+        if (interrupted) {
+            System.out.println("🧭 [Backfill] Resuming coordinate backfill from checkpoint");
+            start(false);
+        }
+    }
+
+    /**
+     * Starts the backfill in the background unless it is already running.
+     *
+     * @param restart start over from the first row instead of continuing after the checkpoint
+     * @return false when a run is already in progress
+     */
+    public boolean start(boolean restart) {
+        synchronized (lock) {
+            if (runner != null && runner.isAlive()) {
+                return false;
+            }
+            if (restart) {
+                checkpointRepository.deleteAllById(TABLES.stream().map(Table::jobName).toList());
+            }
+            processedThisRun.set(0);
+            apiCallsThisRun.set(0);
+            runStartedNanos = System.nanoTime();
+            runner = new Thread(this::run, "coordinate-backfill");
+            runner.setDaemon(true);
+            runner.start();
+            return true;
+        }
+    }
+
+    public BackfillProgress getProgress() {
+        List<JobProgress> jobs = new ArrayList<>();
+        for (Table table : TABLES) {
+            checkpointRepository.findById(table.jobName()).ifPresent(checkpoint -> jobs.add(new JobProgress(
+                    checkpoint.getJobName(), checkpoint.getStatus().name(), checkpoint.getLastId(),
+                    checkpoint.getProcessedCount(), checkpoint.getUpdatedCount(), checkpoint.getUnresolvedCount(),
+                    checkpoint.getStartedAt(), checkpoint.getUpdatedAt(), checkpoint.getFinishedAt())));
+        }
+        boolean running;
+        synchronized (lock) {
+            running = runner != null && runner.isAlive();
+        }
+        double seconds = runStartedNanos > 0 ? (System.nanoTime() - runStartedNanos) / 1e9 : 0;
+        double rowsPerSecond = seconds > 0 ? processedThisRun.get() / seconds : 0;
+        return new BackfillProgress(running, running ? currentJob : null, processedThisRun.get(), apiCallsThisRun.get(),
+                Math.round(rowsPerSecond * 10) / 10.0, jobs);
+    }
+
+    private void run() {
+        TokenBucket rateLimiter = new TokenBucket(ratePerSecond, Math.max(1, (int) Math.ceil(ratePerSecond)));
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "coordinate-backfill-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Table table : TABLES) {
+                currentJob = table.jobName();
+                runJob(table, pool, rateLimiter);
+            }
+            ownerLocationIndex.rebuild();
+            System.out.println("🧭 [Backfill] Coordinate backfill finished: " + processedThisRun.get() + " rows in "
+                    + Duration.ofNanos(System.nanoTime() - runStartedNanos).toSeconds() + "s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("❌ [Backfill] Coordinate backfill failed in " + currentJob + ": " + e.getMessage());
+            markFailed(currentJob);
+        } finally {
+            pool.shutdownNow();
+            currentJob = null;
+        }
+    }
+
+    private void runJob(Table table, ExecutorService pool, TokenBucket rateLimiter) throws InterruptedException {
+        BackfillCheckpoint checkpoint = checkpointRepository.findById(table.jobName()).orElseGet(() -> {
+            BackfillCheckpoint fresh = new BackfillCheckpoint();
+            fresh.setJobName(table.jobName());
+            fresh.setStartedAt(LocalDateTime.now());
+            return fresh;
+        });
+        if (checkpoint.getStatus() == JobStatus.COMPLETED) {
+            return; // finished on an earlier run; restart=true to go again
+        }
+        checkpoint.setStatus(JobStatus.RUNNING);
+        checkpoint.setFinishedAt(null);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpoint = checkpointRepository.save(checkpoint);
+
+        while (true) {
+            List<Row> chunk = readChunk(table, checkpoint.getLastId());
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            List<Future<Optional<Coordinates>>> futures = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                futures.add(pool.submit((Callable<Optional<Coordinates>>) () -> resolve(row, rateLimiter)));
+            }
+            List<Object[]> updates = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Optional<Coordinates> coordinates;
+                try {
+                    coordinates = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    coordinates = Optional.empty();
+                }
+                long id = chunk.get(i).id();
+                coordinates.ifPresent(found -> updates.add(new Object[]{found.latitude(), found.longitude(), id}));
+            }
+
+            BackfillCheckpoint current = checkpoint;
+            long lastId = chunk.get(chunk.size() - 1).id();
+            checkpoint = transactionTemplate.execute(status -> {
+                int updated = 0;
+                if (!updates.isEmpty()) {
+                    for (int count : jdbcTemplate.batchUpdate(table.updateSql(), updates)) {
+                        updated += Math.max(count, 0);
+                    }
+                }
+                current.setLastId(lastId);
+                current.setProcessedCount(current.getProcessedCount() + chunk.size());
+                current.setUpdatedCount(current.getUpdatedCount() + updated);
+                current.setUnresolvedCount(current.getUnresolvedCount() + chunk.size() - updates.size());
+                current.setUpdatedAt(LocalDateTime.now());
+                return checkpointRepository.save(current);
+            });
+            processedThisRun.addAndGet(chunk.size());
+
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        checkpoint.setStatus(JobStatus.COMPLETED);
+        checkpoint.setFinishedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(checkpoint.getFinishedAt());
+        checkpointRepository.save(checkpoint);
+        System.out.println("🧭 [Backfill] " + table.jobName() + " done: " + checkpoint.getUpdatedCount() + " of "
+                + checkpoint.getProcessedCount() + " rows located");
+    }
+
+    private List<Row> readChunk(Table table, long afterId) {
+        // LEFT JOIN on phone can repeat a farmer; keep the first row per id
+        Map<Long, Row> rows = new LinkedHashMap<>();
+        jdbcTemplate.query(table.selectSql(), rs -> {
+            long id = rs.getLong(1);
+            rows.putIfAbsent(id, new Row(id, rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6)));
+        }, afterId, chunkSize);
+        return new ArrayList<>(rows.values());
+    }
+
+    private Optional<Coordinates> resolve(Row row, TokenBucket rateLimiter) throws InterruptedException {
+        String query = joinNonBlank(row.address(), row.village(), row.district(), row.state(), row.pincode());
+        if (!query.isEmpty() && geocodingService.isApiConfigured()) {
+            rateLimiter.acquire();
+            apiCallsThisRun.incrementAndGet();
+            Optional<Coordinates> precise = geocodingService.geocodePrecise(query);
+            if (precise.isPresent()) {
+                return precise;
+            }
+        }
+        return acceptApproximate
+                ? geocodingService.approximate(row.pincode(), row.village(), query)
+                : Optional.empty();
+    }
+
+    private void markFailed(String jobName) {
+        if (jobName == null) {
+            return;
+        }
+        try {
+            checkpointRepository.findById(jobName).ifPresent(checkpoint -> {
+                checkpoint.setStatus(JobStatus.FAILED);
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+            });
+        } catch (RuntimeException ignored) {
+            // The database is what failed; the RUNNING checkpoint resumes on the next start
+        }
+    }
+
+    private static String joinNonBlank(String... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                if (joined.length() > 0) {
+                    joined.append(", ");
+                }
+                joined.append(part.trim());
+            }
+        }
+        return joined.toString();
+    }
+
+    private record Table(String jobName, String selectSql, String updateSql) {}
+
+    private record Row(long id, String address, String village, String pincode, String district, String state) {}
+
+    public record JobProgress(String jobName,
+                              String status,
+                              long lastId,
+                              long processed,
+                              long updated,
+                              long unresolved,
+                              LocalDateTime startedAt,
+                              LocalDateTime updatedAt,
+                              LocalDateTime finishedAt) {}
+
+    public record BackfillProgress(boolean running,
+                                   String currentJob,
+                                   long processedThisRun,
+                                   long apiCallsThisRun,
+                                   double rowsPerSecond,
+                                   List<JobProgress> jobs) {}
+}
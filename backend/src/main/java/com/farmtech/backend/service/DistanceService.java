@@ -2,10 +2,25 @@ package com.farmtech.backend.service;
 
 import org.springframework.stereotype.Service;
 
+/**
+ * Great-circle (haversine) distances.
+ *
+ * The batch methods take points as parallel primitive arrays together with the cosine of each
+ * point's latitude (see {@link #cosLatitude}), so the only trigonometry left per point is two sines
+ * and one asin. They write into caller-supplied arrays and do not allocate.
+ */
 @Service
 public class DistanceService {
 
     private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+
+    // The equirectangular estimate is within 1% of the haversine distance for distances up to
+    // 1000 km between latitudes of +/-70 degrees; candidates are only rejected beyond this margin.
+    // Outside that range only the latitude band is used (it never overestimates the distance).
+    private static final double PREFILTER_SLACK = 1.02;
+    private static final double PREFILTER_MAX_KM = 1000;
+    private static final double PREFILTER_MAX_LATITUDE = 70;
 
     public double distanceInKm(double lat1, double lon1, double lat2, double lon2) {
         double dLat = Math.toRadians(lat2 - lat1);
@@ -18,4 +33,75 @@ public class DistanceService {
         double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
         return EARTH_RADIUS_KM * c;
     }
-}
\ No newline at end of file
+
+    /**
+     * Precomputed per point for the batch methods.
+     */
+    public static double cosLatitude(double latitude) {
+        return Math.cos(Math.toRadians(latitude));
+    }
+
+    /**
+     * Distance from the origin to each of the first {@code count} points, written to {@code distancesKm}.
+     */
+    public void distancesInKm(double originLat, double originLon,
+                              double[] latitudes, double[] longitudes, double[] cosLatitudes, int count,
+                              double[] distancesKm) {
+        double cosOrigin = cosLatitude(originLat);
+        for (int i = 0; i < count; i++) {
+            distancesKm[i] = haversine(originLat, originLon, cosOrigin, latitudes[i], longitudes[i], cosLatitudes[i]);
+        }
+    }
+
+    /**
+     * Points within {@code radiusKm} of the origin. An equirectangular estimate (no trigonometry)
+     * discards points that are clearly out of range before the exact haversine is computed; near the
+     * poles or for very large radii only the latitude band is checked before it.
+     *
+     * @param indexes     receives the positions of the matching points, in input order
+     * @param distancesKm receives their exact distances, aligned with {@code indexes}
+     * @return the number of matches written
+     */
+    public int withinRadius(double originLat, double originLon, double radiusKm,
+                            double[] latitudes, double[] longitudes, double[] cosLatitudes, int count,
+                            int[] indexes, double[] distancesKm) {
+        double cosOrigin = cosLatitude(originLat);
+        double limitDeg = radiusKm * PREFILTER_SLACK / KM_PER_DEGREE;
+        double limitDegSquared = limitDeg * limitDeg;
+        boolean equirectangular = radiusKm <= PREFILTER_MAX_KM
+                && Math.abs(originLat) + limitDeg <= PREFILTER_MAX_LATITUDE;
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            double dLat = latitudes[i] - originLat;
+            if (dLat > limitDeg || dLat < -limitDeg) {
+                continue;
+            }
+            if (equirectangular) {
+                double dLon = longitudes[i] - originLon;
+                if (dLon > 180) {
+                    dLon -= 360;
+                } else if (dLon < -180) {
+                    dLon += 360;
+                }
+                double x = dLon * 0.5 * (cosOrigin + cosLatitudes[i]);
+                if (dLat * dLat + x * x > limitDegSquared) {
+                    continue;
+                }
+            }
+            double distance = haversine(originLat, originLon, cosOrigin, latitudes[i], longitudes[i], cosLatitudes[i]);
+            if (distance <= radiusKm) {
+                indexes[found] = i;
+                distancesKm[found] = distance;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static double haversine(double lat1, double lon1, double cosLat1, double lat2, double lon2, double cosLat2) {
+        double sinHalfDLat = Math.sin(Math.toRadians(lat2 - lat1) * 0.5);
+        double sinHalfDLon = Math.sin(Math.toRadians(lon2 - lon1) * 0.5);
+        double a = sinHalfDLat * sinHalfDLat + cosLat1 * cosLat2 * sinHalfDLon * sinHalfDLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+}
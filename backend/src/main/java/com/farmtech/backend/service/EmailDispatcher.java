@@ -0,0 +1,317 @@
+package com.farmtech.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.ParseException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends prepared MIME messages on background workers so callers never wait on SMTP.
+ *
+ * Messages wait in a bounded queue ({@code email.async.queue-capacity}). When it is full, submit()
+ * waits up to {@code email.async.offer-timeout-ms} and then rejects: the returned future fails with
+ * RejectedExecutionException and nothing is sent. Outbox entries are simply retried later; callers
+ * without an outbox (OTP) must treat that as a failed send. Transient SMTP failures are retried with
+ * exponential backoff without holding a worker.
+ *
+ * Each worker keeps its own SMTP connection open between messages ({@link SmtpConnection}) and takes
+ * whatever is already queued (up to {@code email.async.batch-size}) in one go, so a burst such as a
+ * booking notifying many owners pays for connect/STARTTLS/AUTH once instead of once per email.
+ *
+ * Point spring.mail.host/port at a local SMTP stub (e.g. GreenMail or smtp4dev on localhost:2525)
+ * to exercise the whole path without a real mailbox.
+ */
+@Service
+public class EmailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<EmailJob> queue;
+    private final int queueCapacity;
+    private final int workerCount;
+    private final boolean virtualThreads;
+    private final long offerTimeoutMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final int batchSize;
+    private final int maxMessagesPerConnection;
+    private final long connectionIdleMillis;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    // Milliseconds, up to ~18 hours
+    private final LogLinearHistogram sendMillis = new LogLinearHistogram(6, 1L << 26);
+    private final LogLinearHistogram queueWaitMillis = new LogLinearHistogram(6, 1L << 26);
+
+    public EmailDispatcher(ObjectProvider<JavaMailSender> mailSender,
+                           @Value("${email.async.queue-capacity:1000}") int queueCapacity,
+                           @Value("${email.async.workers:4}") int workerCount,
+                           @Value("${email.async.virtual-threads:true}") boolean virtualThreads,
+                           @Value("${email.async.offer-timeout-ms:100}") long offerTimeoutMillis,
+                           @Value("${email.async.max-attempts:3}") int maxAttempts,
+                           @Value("${email.async.initial-backoff-ms:2000}") long initialBackoffMillis,
+                           @Value("${email.async.batch-size:20}") int batchSize,
+                           @Value("${email.smtp.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                           @Value("${email.smtp.idle-close-ms:30000}") long connectionIdleMillis) {
+        this.mailSender = mailSender.getIfAvailable();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+        this.workerCount = Math.max(1, workerCount);
+        this.virtualThreads = virtualThreads;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.connectionIdleMillis = Math.max(1000, connectionIdleMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        ThreadFactory threadFactory = virtualThreads ? virtualThreadFactory() : null;
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory != null
+                    ? threadFactory.newThread(this::runWorker)
+                    : new Thread(this::runWorker);
+            worker.setName("email-worker-" + i);
+            if (threadFactory == null) {
+                worker.setDaemon(true);
+            }
+            worker.start();
+            workers.add(worker);
+        }
+        System.out.println("📧 [EmailDispatcher] Started " + workerCount + (threadFactory != null ? " virtual" : " platform")
+                + " workers, queue capacity " + queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        retryScheduler.shutdownNow();
+        // Whatever is still queued is not sent; outbox entries go out again once their lease expires
+        List<EmailJob> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.forEach(job -> job.result().complete(false));
+        if (!leftover.isEmpty()) {
+            System.out.println("📧 [EmailDispatcher] Dropped " + leftover.size() + " queued emails on shutdown");
+        }
+    }
+
+    /**
+     * Queues a message for delivery.
+     *
+     * @return completes with true once sent, false when SMTP kept failing, or exceptionally with
+     *         RejectedExecutionException when the queue was full
+     */
+    public CompletableFuture<Boolean> submit(String to, String subject, MimeMessage message) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (mailSender == null) {
+            result.complete(false);
+            return result;
+        }
+        EmailJob job = new EmailJob(to, subject, message, 1, System.nanoTime(), result);
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(job, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            rejectedCount.incrementAndGet();
+            System.err.println("⚠️ [EmailDispatcher] Queue full (" + queueCapacity + "), rejected email to " + to);
+            result.completeExceptionally(new RejectedExecutionException("Email queue is full"));
+            return result;
+        }
+        submittedCount.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Free queue slots; the outbox dispatcher claims no more entries than this.
+     */
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    public EmailStats getStats() {
+        return new EmailStats(
+                queue.size(),
+                queueCapacity,
+                inFlight.get(),
+                submittedCount.get(),
+                sentCount.get(),
+                failedCount.get(),
+                rejectedCount.get(),
+                retryCount.get(),
+                batchCount.get(),
+                connectionsOpened.get(),
+                sendMillis.valueAtQuantile(0.50),
+                sendMillis.valueAtQuantile(0.99),
+                queueWaitMillis.valueAtQuantile(0.50),
+                queueWaitMillis.valueAtQuantile(0.99));
+    }
+
+    private void runWorker() {
+        // Connection reuse needs the Session behind JavaMailSenderImpl; other senders connect per message
+        SmtpConnection connection = mailSender instanceof JavaMailSenderImpl senderImpl
+                ? new SmtpConnection(senderImpl, maxMessagesPerConnection, connectionsOpened)
+                : null;
+        List<EmailJob> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                EmailJob first;
+                try {
+                    first = queue.poll(Math.min(1000, connectionIdleMillis), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (first == null) {
+                    if (connection != null) {
+                        connection.closeIfIdle(connectionIdleMillis);
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batchCount.incrementAndGet();
+                for (EmailJob job : batch) {
+                    deliver(job, connection);
+                }
+                batch.clear();
+            }
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private void deliver(EmailJob job, SmtpConnection connection) {
+        long started = System.nanoTime();
+        queueWaitMillis.record(TimeUnit.NANOSECONDS.toMillis(started - job.enqueuedAtNanos()));
+        inFlight.incrementAndGet();
+        try {
+            if (connection != null) {
+                connection.send(job.message());
+            } else {
+                mailSender.send(job.message());
+            }
+            sendMillis.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            sentCount.incrementAndGet();
+            System.out.println("✅ [EmailDispatcher] Sent \"" + job.subject() + "\" to " + job.to());
+            job.result().complete(true);
+        } catch (MessagingException e) {
+            boolean permanent = e instanceof AuthenticationFailedException
+                    || e instanceof ParseException
+                    || (e instanceof SendFailedException sendFailed && sendFailed.getValidUnsentAddresses() == null);
+            retryOrFail(job, e, permanent);
+        } catch (MailException e) {
+            boolean permanent = e instanceof MailAuthenticationException
+                    || e instanceof MailParseException
+                    || e instanceof MailPreparationException;
+            retryOrFail(job, e, permanent);
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            job.result().completeExceptionally(e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void retryOrFail(EmailJob job, Exception e, boolean permanent) {
+        if (permanent || job.attempt() >= maxAttempts || !running) {
+            failedCount.incrementAndGet();
+            System.err.println("❌ [EmailDispatcher] Giving up on email to " + job.to() + " after "
+                    + job.attempt() + " attempt(s): " + e.getMessage());
+            job.result().complete(false);
+            return;
+        }
+        long backoff = initialBackoffMillis << Math.min(job.attempt() - 1, 16);
+        retryCount.incrementAndGet();
+        System.err.println("⚠️ [EmailDispatcher] Email to " + job.to() + " failed (attempt " + job.attempt()
+                + "), retrying in " + backoff + " ms: " + e.getMessage());
+        EmailJob retry = new EmailJob(job.to(), job.subject(), job.message(), job.attempt() + 1, 0, job.result());
+        try {
+            retryScheduler.schedule(() -> requeue(retry), backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException shuttingDown) {
+            job.result().complete(false);
+        }
+    }
+
+    private void requeue(EmailJob job) {
+        EmailJob queued = new EmailJob(job.to(), job.subject(), job.message(), job.attempt(), System.nanoTime(), job.result());
+        if (!queue.offer(queued)) {
+            rejectedCount.incrementAndGet();
+            job.result().complete(false);
+        }
+    }
+
+    // Thread.ofVirtual() is looked up reflectively: it only exists on Java 21+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private record EmailJob(String to, String subject, MimeMessage message, int attempt,
+                            long enqueuedAtNanos, CompletableFuture<Boolean> result) {}
+
+    public record EmailStats(int queueDepth,
+                             int queueCapacity,
+                             int inFlight,
+                             long submittedSinceStartup,
+                             long sentSinceStartup,
+                             long failedSinceStartup,
+                             long rejectedSinceStartup,
+                             long retriesSinceStartup,
+                             long batchesSinceStartup,
+                             long connectionsOpenedSinceStartup,
+                             long sendP50Millis,
+                             long sendP99Millis,
+                             long queueWaitP50Millis,
+                             long queueWaitP99Millis) {}
+}
@@ -0,0 +1,166 @@
+package com.farmtech.backend.service;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An HTML email body loaded from {@code classpath:email/*.html} and parsed once into literal text
+ * and {@code {{name}}} slots. Rendering appends the literals and the HTML-escaped values into a
+ * per-thread buffer, so a render costs the resulting String and nothing else.
+ *
+ * Line breaks and the indentation following them are dropped while parsing: the files are laid out
+ * one tag per line for editing but render to the same single-line HTML as the old String.format
+ * bodies. Values are escaped where those bodies inserted them raw, so output differs from before
+ * only for values containing {@code & < > " '}.
+ */
+final class EmailTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+    // Don't pin an unusually large buffer to a worker thread for good
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final String name;
+    private final String[] literals;   // literals[i] comes before slots[i]; the last literal has no slot
+    private final int[] slots;         // index into the values passed to render
+    private final int literalLength;
+
+    private EmailTemplate(String name, String[] literals, int[] slots) {
+        this.name = name;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @param placeholders the names used in the file, in the order their values are passed to
+     *                     {@link #render(Object...)}; every name must appear and no other may
+     */
+    static EmailTemplate load(String name, String... placeholders) {
+        String source;
+        try (InputStream in = new ClassPathResource("email/" + name + ".html").getInputStream()) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Email template not found: " + name, e);
+        }
+        return parse(name, source, placeholders);
+    }
+
+    static EmailTemplate parse(String name, String source, String... placeholders) {
+        List<String> names = Arrays.asList(placeholders);
+        boolean[] used = new boolean[placeholders.length];
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\r' || c == '\n') {
+                i++;
+                while (i < source.length() && Character.isWhitespace(source.charAt(i))) {
+                    i++;
+                }
+            } else if (source.startsWith("{{", i)) {
+                int end = source.indexOf("}}", i + 2);
+                if (end < 0) {
+                    throw new IllegalStateException("Unclosed placeholder in email template " + name);
+                }
+                String placeholder = source.substring(i + 2, end).trim();
+                int slot = names.indexOf(placeholder);
+                if (slot < 0) {
+                    throw new IllegalStateException("Unknown placeholder {{" + placeholder + "}} in email template " + name);
+                }
+                used[slot] = true;
+                literals.add(literal.toString());
+                slots.add(slot);
+                literal.setLength(0);
+                i = end + 2;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+
+        for (int slot = 0; slot < used.length; slot++) {
+            if (!used[slot]) {
+                throw new IllegalStateException("Email template " + name + " never uses {{" + placeholders[slot] + "}}");
+            }
+        }
+        return new EmailTemplate(name, literals.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * @param values one per placeholder, in the order given to {@link #load}; null renders as empty
+     */
+    String render(Object... values) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        renderTo(out, values);
+        String html = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return html;
+    }
+
+    /**
+     * Appends the rendered template to {@code out}, e.g. to build repeated rows for a {@link Markup} value.
+     */
+    void renderTo(StringBuilder out, Object... values) {
+        out.ensureCapacity(out.length() + literalLength + 64 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            appendEscaped(out, values[slots[i]]);
+        }
+        out.append(literals[slots.length]);
+    }
+
+    private static void appendEscaped(StringBuilder out, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Markup markup) {
+            out.append(markup.html());
+            return;
+        }
+        // Ids and hours: nothing to escape, and no intermediate String
+        if (value instanceof Long number) {
+            out.append(number.longValue());
+            return;
+        }
+        if (value instanceof Integer number) {
+            out.append(number.intValue());
+            return;
+        }
+        CharSequence text = value instanceof CharSequence chars ? chars : value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    /**
+     * Already-rendered HTML that is inserted as is instead of being escaped.
+     */
+    record Markup(CharSequence html) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.Farmer;
+import com.farmtech.backend.entity.User;
+import com.farmtech.backend.repository.FarmerRepository;
+import com.farmtech.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves the IDs the frontend sends (a User ID or a Farmer ID) to the Farmer row that bookings
+ * reference, matching User and Farmer by phone number. Results are kept in a bounded LRU cache so
+ * dashboard requests skip the userRepo.findById + farmerRepo.findByPhone pair.
+ *
+ * Callers must evict when a phone number changes, a User is created or deleted, or a Farmer is
+ * created for an existing User.
+ */
+@Service
+public class FarmerIdentityService {
+
+    private final UserRepository userRepository;
+    private final FarmerRepository farmerRepository;
+    private final Map<Long, FarmerIdentity> cache;
+
+    public FarmerIdentityService(UserRepository userRepository,
+                                 FarmerRepository farmerRepository,
+                                 @Value("${identity.cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.farmerRepository = farmerRepository;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, FarmerIdentity> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param userOrFarmerId a User ID, or a Farmer ID when no User has that ID
+     */
+    public FarmerIdentity resolve(Long userOrFarmerId) {
+        FarmerIdentity cached = get(userOrFarmerId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<User> user = userRepository.findById(userOrFarmerId);
+        if (user.isEmpty()) {
+            // Not a User ID: callers treat it as a Farmer ID
+            return put(new FarmerIdentity(userOrFarmerId, false, null, null));
+        }
+        return resolve(user.get());
+    }
+
+    /**
+     * Same as {@link #resolve(Long)} for a User that is already loaded.
+     */
+    public FarmerIdentity resolve(User user) {
+        FarmerIdentity cached = get(user.getId());
+        if (cached != null) {
+            return cached;
+        }
+        Optional<Farmer> farmer = user.getPhone() != null ? farmerRepository.findByPhone(user.getPhone()) : Optional.empty();
+        FarmerIdentity identity = farmer
+                .map(f -> new FarmerIdentity(user.getId(), true, f.getId(), f.getAddress()))
+                .orElseGet(() -> new FarmerIdentity(user.getId(), true, null, null));
+        // A Farmer may be auto-created for this user later, so only positive matches are cached
+        return identity.farmerId() != null ? put(identity) : identity;
+    }
+
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+    }
+
+    /**
+     * Drops every cached entry pointing at this Farmer (its phone or address changed).
+     */
+    public void evictFarmer(Long farmerId) {
+        if (farmerId == null) {
+            return;
+        }
+        synchronized (cache) {
+            cache.values().removeIf(identity -> farmerId.equals(identity.farmerId()));
+        }
+    }
+
+    private FarmerIdentity get(Long id) {
+        synchronized (cache) {
+            return cache.get(id);
+        }
+    }
+
+    private FarmerIdentity put(FarmerIdentity identity) {
+        synchronized (cache) {
+            cache.put(identity.requestedId(), identity);
+        }
+        return identity;
+    }
+
+    /**
+     * @param requestedId   the ID the caller passed in
+     * @param userExists    whether a User has that ID
+     * @param farmerId      the matching Farmer ID, or null when none was found
+     * @param farmerAddress the Farmer's address, if any
+     */
+    public record FarmerIdentity(Long requestedId, boolean userExists, Long farmerId, String farmerAddress) {
+
+        /**
+         * The Farmer ID to query bookings with, falling back to the requested ID like the old inline lookups.
+         */
+        public Long farmerIdOrRequested() {
+            return farmerId != null ? farmerId : requestedId;
+        }
+
+        /**
+         * True for a User that has no Farmer row yet (endpoints return an empty list for those).
+         */
+        public boolean missingFarmer() {
+            return userExists && farmerId == null;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.service.GeocodingService.Coordinates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline pincode/place to coordinates lookup over a bundled CSV ({@code gazetteer.resource}).
+ *
+ * Rows are loaded once into parallel primitive arrays sorted by pincode, plus a sorted array of
+ * place names pointing into them, so a lookup is a binary search with no allocation beyond the
+ * result. A pincode missing from the file resolves to the numerically closest one in the same
+ * sorting district (same first three digits). Coordinates are town-level approximations.
+ */
+@Service
+public class Gazetteer {
+
+    private static final Pattern PINCODE = Pattern.compile("(?<!\\d)([1-9]\\d{2})\\s?(\\d{3})(?!\\d)");
+
+    private final int[] pincodes;
+    private final float[] latitudes;
+    private final float[] longitudes;
+    private final String[] placeNames;   // normalized, sorted
+    private final int[] placeRows;       // row of placeNames[i] in the pincode arrays
+
+    public Gazetteer(@Value("${gazetteer.resource:gazetteer/karnataka-pincodes.csv}") String resource) {
+        List<Row> rows = read(resource);
+        rows.sort(Comparator.comparingInt(Row::pincode));
+
+        pincodes = new int[rows.size()];
+        latitudes = new float[rows.size()];
+        longitudes = new float[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            pincodes[i] = rows.get(i).pincode();
+            latitudes[i] = rows.get(i).latitude();
+            longitudes[i] = rows.get(i).longitude();
+        }
+
+        Integer[] byName = new Integer[rows.size()];
+        for (int i = 0; i < byName.length; i++) {
+            byName[i] = i;
+        }
+        Arrays.sort(byName, Comparator.comparing(i -> rows.get(i).place()));
+        placeNames = new String[byName.length];
+        placeRows = new int[byName.length];
+        for (int i = 0; i < byName.length; i++) {
+            placeNames[i] = rows.get(byName[i]).place();
+            placeRows[i] = byName[i];
+        }
+        System.out.println("🗺️ [Gazetteer] Loaded " + pincodes.length + " places from " + resource);
+    }
+
+    /**
+     * Tries the pincode, then the village name, then a pincode or place name found in the free text
+     * (e.g. an address or booking location).
+     */
+    public Optional<Coordinates> locate(String pincode, String village, String freeText) {
+        Optional<Coordinates> found = byPincode(pincode);
+        if (found.isEmpty()) {
+            found = byPlace(village);
+        }
+        if (found.isEmpty() && freeText != null) {
+            Matcher matcher = PINCODE.matcher(freeText);
+            if (matcher.find()) {
+                found = byPincode(matcher.group(1) + matcher.group(2));
+            }
+            for (String part : freeText.split(",")) {
+                if (found.isPresent()) {
+                    break;
+                }
+                found = byPlace(part);
+            }
+        }
+        return found;
+    }
+
+    public Optional<Coordinates> byPincode(String pincode) {
+        int pin = parsePincode(pincode);
+        if (pin < 0 || pincodes.length == 0) {
+            return Optional.empty();
+        }
+        int index = Arrays.binarySearch(pincodes, pin);
+        if (index < 0) {
+            // Closest listed pincode in the same sorting district, if any
+            int insertion = -index - 1;
+            int district = pin / 1000;
+            int below = insertion - 1;
+            int above = insertion;
+            boolean belowOk = below >= 0 && pincodes[below] / 1000 == district;
+            boolean aboveOk = above < pincodes.length && pincodes[above] / 1000 == district;
+            if (!belowOk && !aboveOk) {
+                return Optional.empty();
+            }
+            index = !aboveOk || (belowOk && pin - pincodes[below] <= pincodes[above] - pin) ? below : above;
+        }
+        return Optional.of(coordinates(index));
+    }
+
+    public Optional<Coordinates> byPlace(String place) {
+        if (place == null || place.isBlank()) {
+            return Optional.empty();
+        }
+        int index = Arrays.binarySearch(placeNames, normalize(place));
+        return index >= 0 ? Optional.of(coordinates(placeRows[index])) : Optional.empty();
+    }
+
+    public int size() {
+        return pincodes.length;
+    }
+
+    private Coordinates coordinates(int row) {
+        return new Coordinates(latitudes[row], longitudes[row]);
+    }
+
+    private static int parsePincode(String pincode) {
+        if (pincode == null) {
+            return -1;
+        }
+        int value = 0;
+        int digits = 0;
+        for (int i = 0; i < pincode.length(); i++) {
+            char c = pincode.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else if (c != ' ') {
+                return -1;
+            }
+        }
+        return digits == 6 ? value : -1;
+    }
+
+    private static String normalize(String place) {
+        return place.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Row> read(String resource) {
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(resource).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                int pincode = fields.length == 5 ? parsePincode(fields[0].trim()) : -1;
+                if (pincode < 0) {
+                    throw new IllegalStateException(resource + ":" + lineNumber + ": expected pincode,place,district,latitude,longitude");
+                }
+                rows.add(new Row(pincode, normalize(fields[1]),
+                        Float.parseFloat(fields[3].trim()), Float.parseFloat(fields[4].trim())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read gazetteer " + resource, e);
+        }
+        return rows;
+    }
+
+    private record Row(int pincode, String place, float latitude, float longitude) {}
+}
@@ -1,49 +1,316 @@
 package com.farmtech.backend.service;
 
+import com.farmtech.backend.entity.GeocodeCacheEntry;
+import com.farmtech.backend.repository.GeocodeCacheRepository;
 import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
+/**
+ * Address to coordinates via the Google Geocoding API, cached in two tiers: an in-memory LRU of
+ * {@code geocoding.cache.max-entries} addresses in front of the geocode_cache table, both keyed by the
+ * normalized address. "No result" answers are cached too, for {@code geocoding.cache.negative-ttl-minutes}
+ * instead of {@code geocoding.cache.ttl-days}; upstream errors are not cached.
+ *
+ * Concurrent lookups of the same address share one upstream call. Point {@code geocoding.base-url} at a
+ * local stub server to exercise the whole path offline.
+ *
+ * When the API is not configured or has no answer, a pincode or place name in the address is resolved
+ * through the offline {@link Gazetteer} instead (town-level accuracy; not cached).
+ */
 @Service
 public class GeocodingService {
 
-    @Value("${google.maps.api.key:}")
-    private String apiKey;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern SPACE_AROUND_COMMA = Pattern.compile("\\s*,\\s*");
+    private static final int MAX_KEY_LENGTH = 255;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final GeocodeCacheRepository cacheRepository;
+    private final Gazetteer gazetteer;
+    private final RestTemplate restTemplate;
+    private final String apiKey;
+    private final String baseUrl;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Clock clock;
+
+    private final Map<String, CachedLookup> memoryCache;
+    private final ConcurrentHashMap<String, CompletableFuture<CachedLookup>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong tableHits = new AtomicLong();
+    private final AtomicLong upstreamCalls = new AtomicLong();
+    private final AtomicLong coalescedLookups = new AtomicLong();
+    private final AtomicLong upstreamErrors = new AtomicLong();
+
+    @Autowired
+    public GeocodingService(GeocodeCacheRepository cacheRepository,
+                            Gazetteer gazetteer,
+                            RestTemplateBuilder restTemplateBuilder,
+                            @Value("${google.maps.api.key:}") String apiKey,
+                            @Value("${geocoding.base-url:https://maps.googleapis.com/maps/api/geocode/json}") String baseUrl,
+                            @Value("${geocoding.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                            @Value("${geocoding.read-timeout-ms:5000}") long readTimeoutMillis,
+                            @Value("${geocoding.cache.max-entries:10000}") int maxEntries,
+                            @Value("${geocoding.cache.ttl-days:30}") long ttlDays,
+                            @Value("${geocoding.cache.negative-ttl-minutes:60}") long negativeTtlMinutes) {
+        this(cacheRepository, gazetteer, restTemplateBuilder, apiKey, baseUrl, connectTimeoutMillis, readTimeoutMillis,
+                maxEntries, ttlDays, negativeTtlMinutes, Clock.systemDefaultZone());
+    }
+
+    // Tests pass their own clock to step over the cache TTLs
+    GeocodingService(GeocodeCacheRepository cacheRepository,
+                     Gazetteer gazetteer,
+                     RestTemplateBuilder restTemplateBuilder,
+                     String apiKey,
+                     String baseUrl,
+                     long connectTimeoutMillis,
+                     long readTimeoutMillis,
+                     int maxEntries,
+                     long ttlDays,
+                     long negativeTtlMinutes,
+                     Clock clock) {
+        this.cacheRepository = cacheRepository;
+        this.gazetteer = gazetteer;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMillis))
+                .build();
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.ttl = Duration.ofDays(ttlDays);
+        this.negativeTtl = Duration.ofMinutes(negativeTtlMinutes);
+        this.clock = clock;
+        this.memoryCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedLookup> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
 
     public Optional<Coordinates> geocodeAddress(String address) {
+        if (address == null || address.isBlank()) {
+            return Optional.empty();
+        }
+        Optional<Coordinates> precise = geocodePrecise(address);
+        return precise.isPresent() ? precise : gazetteer.locate(null, null, address);
+    }
+
+    public boolean isApiConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    /**
+     * Coarse coordinates from the offline gazetteer only: no network call, no cache.
+     */
+    public Optional<Coordinates> approximate(String pincode, String village, String address) {
+        return gazetteer.locate(pincode, village, address);
+    }
+
+    /**
+     * Geocoding API result (through the caches) without the gazetteer fallback.
+     */
+    public Optional<Coordinates> geocodePrecise(String address) {
         if (address == null || address.isBlank() || apiKey == null || apiKey.isBlank()) {
             return Optional.empty();
         }
+        String key = cacheKey(address);
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        CachedLookup cached;
+        synchronized (memoryCache) {
+            cached = memoryCache.get(key);
+        }
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            memoryHits.incrementAndGet();
+            return Optional.ofNullable(cached.coordinates());
+        }
+
+        // Single flight: whoever registers first does the lookup, everyone else waits for its result
+        CompletableFuture<CachedLookup> mine = new CompletableFuture<>();
+        CompletableFuture<CachedLookup> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalescedLookups.incrementAndGet();
+            try {
+                CachedLookup shared = existing.join();
+                return shared != null ? Optional.ofNullable(shared.coordinates()) : Optional.empty();
+            } catch (CompletionException e) {
+                return Optional.empty();
+            }
+        }
+        try {
+            CachedLookup result = load(key, address, now);
+            mine.complete(result);
+            return result != null ? Optional.ofNullable(result.coordinates()) : Optional.empty();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            return Optional.empty();
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(cron = "${geocoding.cache.purge-cron:0 30 3 * * *}")
+    public void purgeExpired() {
+        int removed = cacheRepository.deleteExpired(LocalDateTime.now(clock));
+        if (removed > 0) {
+            System.out.println("🗺️ [Geocoding] Purged " + removed + " expired cache rows");
+        }
+    }
+
+    public GeocodingStats getStats() {
+        int memoryEntries;
+        synchronized (memoryCache) {
+            memoryEntries = memoryCache.size();
+        }
+        return new GeocodingStats(memoryEntries, memoryHits.get(), tableHits.get(), upstreamCalls.get(),
+                coalescedLookups.get(), upstreamErrors.get());
+    }
+
+    /**
+     * @return null when the upstream call failed, so nothing was cached
+     */
+    private CachedLookup load(String key, String address, LocalDateTime now) {
+        // A lookup that finished just before we registered has already filled the memory tier
+        CachedLookup cached;
+        synchronized (memoryCache) {
+            cached = memoryCache.get(key);
+        }
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            memoryHits.incrementAndGet();
+            return cached;
+        }
+
+        Optional<GeocodeCacheEntry> row = cacheRepository.findById(key);
+        if (row.isPresent() && row.get().getExpiresAt().isAfter(now)) {
+            tableHits.incrementAndGet();
+            GeocodeCacheEntry entry = row.get();
+            CachedLookup lookup = new CachedLookup(
+                    entry.getLatitude() != null && entry.getLongitude() != null
+                            ? new Coordinates(entry.getLatitude(), entry.getLongitude())
+                            : null,
+                    entry.getExpiresAt());
+            remember(key, lookup);
+            return lookup;
+        }
+
+        Optional<Optional<Coordinates>> fetched = fetch(address);
+        if (fetched.isEmpty()) {
+            return null;
+        }
+        Coordinates coordinates = fetched.get().orElse(null);
+        CachedLookup lookup = new CachedLookup(coordinates, now.plus(coordinates != null ? ttl : negativeTtl));
+
+        GeocodeCacheEntry entry = row.orElseGet(GeocodeCacheEntry::new);
+        entry.setAddressKey(key);
+        entry.setLatitude(coordinates != null ? coordinates.latitude() : null);
+        entry.setLongitude(coordinates != null ? coordinates.longitude() : null);
+        entry.setFetchedAt(now);
+        entry.setExpiresAt(lookup.expiresAt());
+        try {
+            cacheRepository.save(entry);
+        } catch (RuntimeException e) {
+            // Another instance stored the same address first; the memory tier still has it
+            System.err.println("⚠️ [Geocoding] Could not store cache row: " + e.getMessage());
+        }
+        remember(key, lookup);
+        return lookup;
+    }
+
+    /**
+     * @return empty when the call failed, otherwise the (possibly empty) result
+     */
+    private Optional<Optional<Coordinates>> fetch(String address) {
+        upstreamCalls.incrementAndGet();
         try {
             String encodedAddress = URLEncoder.encode(address, StandardCharsets.UTF_8);
-            String url = String.format("https://maps.googleapis.com/maps/api/geocode/json?address=%s&key=%s", encodedAddress, apiKey);
+            String url = baseUrl + "?address=" + encodedAddress + "&key=" + apiKey;
             ResponseEntity<JsonNode> response = restTemplate.getForEntity(url, JsonNode.class);
             if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                upstreamErrors.incrementAndGet();
+                return Optional.empty();
+            }
+            String status = response.getBody().path("status").asText("OK");
+            if ("ZERO_RESULTS".equals(status)) {
+                return Optional.of(Optional.empty());
+            }
+            if (!"OK".equals(status)) {
+                // OVER_QUERY_LIMIT, REQUEST_DENIED, ... say nothing about the address
+                upstreamErrors.incrementAndGet();
                 return Optional.empty();
             }
             JsonNode results = response.getBody().path("results");
             if (!results.isArray() || results.isEmpty()) {
-                return Optional.empty();
+                return Optional.of(Optional.empty());
             }
             JsonNode location = results.get(0).path("geometry").path("location");
             if (!location.has("lat") || !location.has("lng")) {
-                return Optional.empty();
+                return Optional.of(Optional.empty());
             }
             double lat = location.get("lat").asDouble();
             double lng = location.get("lng").asDouble();
-            return Optional.of(new Coordinates(lat, lng));
+            return Optional.of(Optional.of(new Coordinates(lat, lng)));
         } catch (Exception e) {
+            upstreamErrors.incrementAndGet();
             return Optional.empty();
         }
     }
 
+    private void remember(String key, CachedLookup lookup) {
+        synchronized (memoryCache) {
+            memoryCache.put(key, lookup);
+        }
+    }
+
+    // "  12, MG Road ,Mandya " and "12,mg road,mandya" share one entry
+    static String cacheKey(String address) {
+        String normalized = SPACE_AROUND_COMMA.matcher(WHITESPACE.matcher(address.trim()).replaceAll(" ")).replaceAll(",")
+                .toLowerCase(Locale.ROOT);
+        if (normalized.length() <= MAX_KEY_LENGTH) {
+            return normalized;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            String hash = HexFormat.of().formatHex(digest);
+            return normalized.substring(0, MAX_KEY_LENGTH - hash.length() - 1) + "#" + hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // coordinates is null for a lookup that found nothing
+    private record CachedLookup(Coordinates coordinates, LocalDateTime expiresAt) {}
+
     public record Coordinates(double latitude, double longitude) {}
-}
\ No newline at end of file
+
+    public record GeocodingStats(int memoryEntries,
+                                 long memoryHits,
+                                 long tableHits,
+                                 long upstreamCalls,
+                                 long coalescedLookups,
+                                 long upstreamErrors) {}
+}
@@ -0,0 +1,195 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.BookingCandidate.CandidateStatus;
+import com.farmtech.backend.repository.BookingCandidateRepository;
+import com.farmtech.backend.repository.BookingRepository;
+import com.farmtech.backend.service.BookingRollupService.Snapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times out unanswered owner invitations.
+ *
+ * All candidates of a booking are invited together, so the wheel holds one entry per booking with
+ * the deadline of its newest invitation. Entries are hashed into {@code wheel-size} slots by deadline
+ * tick; each tick only looks at the slot(s) it passed, and entries whose deadline is more than one
+ * revolution away simply stay in their slot. Due bookings are expired in batches with set-based
+ * updates, so neither a timer per invitation nor a table scan is needed.
+ */
+@Service
+public class InvitationTimeoutScheduler {
+
+    private final BookingCandidateRepository candidateRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingPushService bookingPushService;
+    private final BookingRollupService bookingRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long timeoutMillis;
+    private final long tickMillis;
+    private final int batchSize;
+    private final List<Set<Long>> slots;
+    private final int slotMask;
+    private final Map<Long, Long> deadlineByBookingId = new ConcurrentHashMap<>();
+    private long lastProcessedTick;
+
+    public InvitationTimeoutScheduler(BookingCandidateRepository candidateRepository,
+                                      BookingRepository bookingRepository,
+                                      BookingPushService bookingPushService,
+                                      BookingRollupService bookingRollupService,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${booking.invitation.timeout-minutes:15}") long timeoutMinutes,
+                                      @Value("${booking.invitation.tick-ms:1000}") long tickMillis,
+                                      @Value("${booking.invitation.wheel-size:512}") int wheelSize,
+                                      @Value("${booking.invitation.batch-size:500}") int batchSize) {
+        this.candidateRepository = candidateRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingPushService = bookingPushService;
+        this.bookingRollupService = bookingRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.timeoutMillis = timeoutMinutes * 60_000L;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+
+        // Round up to a power of two so the slot index is a mask
+        int size = Integer.highestOneBit(Math.max(16, wheelSize - 1)) << 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(ConcurrentHashMap.newKeySet());
+        }
+        this.slotMask = size - 1;
+        this.lastProcessedTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = candidateRepository.findLatestInvitedAtPerBooking(CandidateStatus.NOTIFIED);
+        for (Object[] row : rows) {
+            schedule((Long) row[0], (LocalDateTime) row[1]);
+        }
+        System.out.println("⏱️ [InvitationTimeout] Tracking " + deadlineByBookingId.size() + " bookings with open invitations");
+    }
+
+    /**
+     * Starts (or extends) the timeout for a booking whose candidates were invited at {@code invitedAt}.
+     */
+    public void schedule(Long bookingId, LocalDateTime invitedAt) {
+        long invitedMillis = invitedAt != null
+                ? invitedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        long deadline = deadlineByBookingId.merge(bookingId, invitedMillis + timeoutMillis, Math::max);
+        synchronized (this) {
+            // Overdue entries (e.g. after a restart) go into the next slot instead of waiting a revolution
+            long tick = Math.max(deadline / tickMillis, lastProcessedTick + 1);
+            slots.get((int) (tick & slotMask)).add(bookingId);
+        }
+    }
+
+    /**
+     * Stops tracking a booking that no longer needs a timeout (it was accepted or cancelled).
+     */
+    public void cancel(Long bookingId) {
+        deadlineByBookingId.remove(bookingId);
+    }
+
+    public int pendingCount() {
+        return deadlineByBookingId.size();
+    }
+
+    @Scheduled(fixedDelayString = "${booking.invitation.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            long currentTick = now / tickMillis;
+            // One revolution covers every slot, so a long pause never needs more than slots.size() steps
+            long fromTick = Math.max(lastProcessedTick + 1, currentTick - slotMask);
+            for (long tick = fromTick; tick <= currentTick; tick++) {
+                collectDue((int) (tick & slotMask), now, due);
+            }
+            lastProcessedTick = currentTick;
+        }
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            try {
+                expire(batch);
+            } catch (RuntimeException e) {
+                System.err.println("❌ [InvitationTimeout] Failed to expire " + batch.size() + " bookings: " + e.getMessage());
+                // Try again after another timeout period
+                batch.forEach(bookingId -> schedule(bookingId, null));
+            }
+        }
+    }
+
+    private void collectDue(int slotIndex, long now, List<Long> due) {
+        slots.get(slotIndex).removeIf(bookingId -> {
+            Long deadline = deadlineByBookingId.get(bookingId);
+            if (deadline == null) {
+                return true; // cancelled
+            }
+            if (deadline <= now) {
+                deadlineByBookingId.remove(bookingId, deadline);
+                due.add(bookingId);
+                return true;
+            }
+            // Not due yet: stays for a later revolution unless schedule() moved it to another slot
+            return (int) ((deadline / tickMillis) & slotMask) != slotIndex;
+        });
+    }
+
+    private void expire(List<Long> bookingIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime cutoff = now.minus(Duration.ofMillis(timeoutMillis));
+
+            // Lock the bookings the status update may move first (same booking-then-candidates order as accept)
+            Map<Long, Snapshot> awaiting = new HashMap<>();
+            for (Snapshot snapshot : bookingRollupService.lockUnacceptedSnapshots(bookingIds, "AWAITING_OWNER")) {
+                awaiting.put(snapshot.bookingId(), snapshot);
+            }
+
+            Map<Long, List<Long>> ownerIdsByBooking = new HashMap<>();
+            for (Object[] row : candidateRepository.findStaleInvitations(bookingIds, CandidateStatus.NOTIFIED, cutoff)) {
+                ownerIdsByBooking.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+            }
+            int expiredCandidates = candidateRepository.expireStaleInvitations(
+                    bookingIds, CandidateStatus.NOTIFIED, CandidateStatus.SKIPPED_TIMEOUT, cutoff, now);
+            int expiredBookings = bookingRepository.updateStatusWhereNoOpenCandidates(
+                    bookingIds, "AWAITING_OWNER", "PENDING_NO_CANDIDATES", CandidateStatus.NOTIFIED);
+
+            ownerIdsByBooking.forEach((bookingId, ownerIds) ->
+                    bookingPushService.publish(BookingPushService.EventType.EXPIRED, bookingId, null, ownerIds));
+            List<Snapshot> moved = new ArrayList<>();
+            for (Object[] row : bookingRepository.findRenterIdsByIdInAndStatus(bookingIds, "PENDING_NO_CANDIDATES")) {
+                // Bookings that were already PENDING_NO_CANDIDATES before this sweep were announced then
+                Snapshot before = awaiting.get((Long) row[0]);
+                if (before == null) {
+                    continue;
+                }
+                bookingPushService.publish(BookingPushService.EventType.EXPIRED, (Long) row[0], "PENDING_NO_CANDIDATES", List.of((Long) row[1]));
+                moved.add(before);
+            }
+            bookingRollupService.recordTransitions(moved,
+                    moved.stream().map(snapshot -> snapshot.withStatus("PENDING_NO_CANDIDATES")).toList());
+
+            System.out.println("⏱️ [InvitationTimeout] Timed out " + expiredCandidates + " invitations, "
+                    + expiredBookings + " bookings moved to PENDING_NO_CANDIDATES");
+        });
+    }
+}
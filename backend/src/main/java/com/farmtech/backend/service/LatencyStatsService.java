@@ -0,0 +1,147 @@
+package com.farmtech.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latency percentiles for booking confirmation (created -> confirmed) and owner responses
+ * (invited -> accepted/rejected), kept in fixed-size histograms in seconds.
+ *
+ * Samples are published inside the booking transaction and recorded after it commits. On startup the
+ * histograms are seeded from the existing rows; per-owner histograms are kept for the most recently
+ * active {@code analytics.latency.max-owners} owners and use a coarser layout than the global ones.
+ */
+@Service
+public class LatencyStatsService {
+
+    // Anything slower than ~1 year is recorded as 1 year
+    private static final long MAX_SECONDS = 1L << 25;
+    private static final int GLOBAL_PRECISION_BITS = 7;
+    private static final int OWNER_PRECISION_BITS = 5;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LogLinearHistogram timeToConfirm = new LogLinearHistogram(GLOBAL_PRECISION_BITS, MAX_SECONDS);
+    private final LogLinearHistogram ownerResponse = new LogLinearHistogram(GLOBAL_PRECISION_BITS, MAX_SECONDS);
+    private final Map<Long, LogLinearHistogram> responseByOwnerId;
+
+    public LatencyStatsService(ApplicationEventPublisher eventPublisher,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${analytics.latency.max-owners:5000}") int maxOwners) {
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.responseByOwnerId = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, LogLinearHistogram> eldest) {
+                return size() > maxOwners;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        // Built on the side and merged in, so samples recorded while seeding are kept
+        LogLinearHistogram confirmSeed = new LogLinearHistogram(GLOBAL_PRECISION_BITS, MAX_SECONDS);
+        jdbcTemplate.query(
+                "SELECT TIMESTAMPDIFF(SECOND, created_at, confirmed_at) FROM bookings " +
+                "WHERE created_at IS NOT NULL AND confirmed_at IS NOT NULL",
+                rs -> {
+                    confirmSeed.record(rs.getLong(1));
+                });
+        timeToConfirm.merge(confirmSeed);
+
+        LogLinearHistogram responseSeed = new LogLinearHistogram(GLOBAL_PRECISION_BITS, MAX_SECONDS);
+        Map<Long, LogLinearHistogram> ownerSeeds = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT owner_id, TIMESTAMPDIFF(SECOND, invited_at, responded_at) FROM booking_candidates " +
+                "WHERE status IN ('ACCEPTED', 'REJECTED') AND invited_at IS NOT NULL AND responded_at IS NOT NULL " +
+                "ORDER BY responded_at",
+                rs -> {
+                    long seconds = rs.getLong(2);
+                    responseSeed.record(seconds);
+                    ownerSeeds.computeIfAbsent(rs.getLong(1), id -> newOwnerHistogram()).record(seconds);
+                });
+        ownerResponse.merge(responseSeed);
+        synchronized (responseByOwnerId) {
+            ownerSeeds.forEach((ownerId, seed) -> responseByOwnerId.computeIfAbsent(ownerId, id -> newOwnerHistogram()).merge(seed));
+        }
+        System.out.println("⏱️ [Latency] Seeded " + timeToConfirm.count() + " confirmations and "
+                + ownerResponse.count() + " owner responses (" + ownerSeeds.size() + " owners)");
+    }
+
+    public void recordConfirmation(LocalDateTime createdAt, LocalDateTime confirmedAt) {
+        if (createdAt != null && confirmedAt != null) {
+            eventPublisher.publishEvent(new LatencySample(null, Duration.between(createdAt, confirmedAt).toSeconds()));
+        }
+    }
+
+    public void recordOwnerResponse(Long ownerId, LocalDateTime invitedAt, LocalDateTime respondedAt) {
+        if (ownerId != null && invitedAt != null && respondedAt != null) {
+            eventPublisher.publishEvent(new LatencySample(ownerId, Duration.between(invitedAt, respondedAt).toSeconds()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLatencySample(LatencySample sample) {
+        if (sample.ownerId() == null) {
+            timeToConfirm.record(sample.seconds());
+            return;
+        }
+        ownerResponse.record(sample.seconds());
+        LogLinearHistogram histogram;
+        synchronized (responseByOwnerId) {
+            histogram = responseByOwnerId.computeIfAbsent(sample.ownerId(), id -> newOwnerHistogram());
+        }
+        histogram.record(sample.seconds());
+    }
+
+    public LatencyReport getReport() {
+        return new LatencyReport(summarize(timeToConfirm), summarize(ownerResponse));
+    }
+
+    /**
+     * @return null when the owner has no recorded responses (or was evicted)
+     */
+    public LatencySummary getOwnerResponse(Long ownerId) {
+        LogLinearHistogram histogram;
+        synchronized (responseByOwnerId) {
+            histogram = responseByOwnerId.get(ownerId);
+        }
+        return histogram != null ? summarize(histogram) : null;
+    }
+
+    private static LogLinearHistogram newOwnerHistogram() {
+        return new LogLinearHistogram(OWNER_PRECISION_BITS, MAX_SECONDS);
+    }
+
+    private static LatencySummary summarize(LogLinearHistogram histogram) {
+        return new LatencySummary(
+                histogram.count(),
+                histogram.valueAtQuantile(0.50),
+                histogram.valueAtQuantile(0.90),
+                histogram.valueAtQuantile(0.99),
+                histogram.max());
+    }
+
+    // ownerId is null for a confirmation sample
+    public record LatencySample(Long ownerId, long seconds) {
+    }
+
+    public record LatencySummary(long count, long p50Seconds, long p90Seconds, long p99Seconds, long maxSeconds) {
+    }
+
+    public record LatencyReport(LatencySummary timeToConfirm, LatencySummary ownerResponse) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.farmtech.backend.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline stand-in for a real SMS gateway ({@code sms.provider=stub}): each send takes
+ * {@code sms.stub.latency-ms} and fails with probability {@code sms.stub.failure-rate}, so the queue,
+ * rate limit and retries can be load-tested without sending anything.
+ */
+final class LocalStubSmsProvider implements SmsProvider {
+
+    private final long latencyMillis;
+    private final double failureRate;
+    private final AtomicLong accepted = new AtomicLong();
+
+    LocalStubSmsProvider(long latencyMillis, double failureRate) {
+        this.latencyMillis = Math.max(0, latencyMillis);
+        this.failureRate = Math.min(1.0, Math.max(0.0, failureRate));
+    }
+
+    @Override
+    public void send(String to, String message) throws Exception {
+        if (latencyMillis > 0) {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Simulated gateway failure");
+        }
+        accepted.incrementAndGet();
+    }
+
+    @Override
+    public String name() {
+        return "stub (" + accepted.get() + " accepted)";
+    }
+}
@@ -0,0 +1,108 @@
+package com.farmtech.backend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram (the HdrHistogram bucket layout) for non-negative longs.
+ *
+ * Values below 2^subBucketBits get a bucket each; above that every power of two is split into
+ * 2^(subBucketBits-1) equal sub-buckets, so a quantile is reported within 1/2^(subBucketBits-1) of
+ * the true value. Memory is fixed by (subBucketBits, maxValue), recording is one atomic increment,
+ * quantiles walk the bucket array once, and histograms with the same layout merge by adding counts.
+ */
+final class LogLinearHistogram {
+
+    private final int subBucketBits;
+    private final int subBucketHalfCount;
+    private final long maxValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxRecorded = new AtomicLong();
+
+    /**
+     * @param subBucketBits precision: 5 keeps quantiles within ~6%, 7 within ~1.6%
+     * @param maxValue      larger values are recorded as maxValue
+     */
+    LogLinearHistogram(int subBucketBits, long maxValue) {
+        if (subBucketBits < 2 || subBucketBits > 16) {
+            throw new IllegalArgumentException("subBucketBits must be between 2 and 16");
+        }
+        this.subBucketBits = subBucketBits;
+        this.subBucketHalfCount = 1 << (subBucketBits - 1);
+        this.maxValue = Math.max(1, maxValue);
+        this.counts = new AtomicLongArray(bucketIndex(this.maxValue) + 1);
+    }
+
+    void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), maxValue);
+        counts.incrementAndGet(bucketIndex(clamped));
+        totalCount.incrementAndGet();
+        maxRecorded.accumulateAndGet(clamped, Math::max);
+    }
+
+    /**
+     * Adds every count of {@code other}, which must have the same layout.
+     */
+    void merge(LogLinearHistogram other) {
+        if (other.subBucketBits != subBucketBits || other.counts.length() != counts.length()) {
+            throw new IllegalArgumentException("Histograms have different layouts");
+        }
+        long merged = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+                merged += count;
+            }
+        }
+        totalCount.addAndGet(merged);
+        maxRecorded.accumulateAndGet(other.maxRecorded.get(), Math::max);
+    }
+
+    long count() {
+        return totalCount.get();
+    }
+
+    long max() {
+        return maxRecorded.get();
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.99
+     * @return the middle of the bucket holding that rank, or 0 when nothing was recorded
+     */
+    long valueAtQuantile(double quantile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketMidpoint(i), maxRecorded.get());
+            }
+        }
+        return maxRecorded.get();
+    }
+
+    private int bucketIndex(long value) {
+        if (value < (1L << subBucketBits)) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - subBucketBits + 1;
+        return shift * subBucketHalfCount + (int) (value >>> shift);
+    }
+
+    private long bucketMidpoint(int index) {
+        if (index < (1 << subBucketBits)) {
+            return index;
+        }
+        int shift = index / subBucketHalfCount - 1;
+        long subBucket = index - (long) shift * subBucketHalfCount;
+        long lowest = subBucket << shift;
+        return lowest + ((1L << shift) - 1) / 2;
+    }
+}
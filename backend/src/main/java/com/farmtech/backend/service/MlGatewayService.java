@@ -0,0 +1,316 @@
+package com.farmtech.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking client for the Python ML service ({@code ml.service.base}).
+ *
+ * One shared {@link HttpClient} keeps connections to the service alive between calls; responses are
+ * handled on a small pool of {@code ml.client.threads}, so no request thread waits on the model.
+ * Each kind of call has its own timeout ({@code ml.timeout.*}). At most {@code ml.bulkhead.max-concurrent}
+ * calls are outstanding; beyond that requests are refused at once instead of queueing. After
+ * {@code ml.circuit.failure-threshold} consecutive failures (timeouts, connection errors, 5xx) the
+ * circuit opens and calls fail fast for {@code ml.circuit.open-ms}, then a single trial call decides
+ * whether it closes again.
+ *
+ * Results are always a ResponseEntity: the service's own status and body, 503 when refused or
+ * unreachable, 504 on timeout.
+ */
+@Service
+@ConditionalOnProperty(prefix = "ml", name = "enabled", havingValue = "true")
+public class MlGatewayService {
+
+    public enum Endpoint { PREDICTION, CHAT, UPLOAD, HEALTH }
+
+    private enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Map<Endpoint, Duration> timeouts;
+    private final int maxConcurrent;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final Semaphore bulkhead;
+
+    private final Object circuitLock = new Object();
+    private CircuitState circuitState = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private boolean trialInFlight;
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+    private final AtomicLong circuitRejections = new AtomicLong();
+    // Milliseconds, up to ~18 hours
+    private final LogLinearHistogram callMillis = new LogLinearHistogram(6, 1L << 26);
+
+    public MlGatewayService(ObjectMapper objectMapper,
+                            @Value("${ml.service.base:http://localhost:5001}") String baseUrl,
+                            @Value("${ml.client.threads:4}") int threads,
+                            @Value("${ml.timeout.connect-ms:2000}") long connectTimeoutMillis,
+                            @Value("${ml.timeout.prediction-ms:10000}") long predictionTimeoutMillis,
+                            @Value("${ml.timeout.chat-ms:25000}") long chatTimeoutMillis,
+                            @Value("${ml.timeout.upload-ms:25000}") long uploadTimeoutMillis,
+                            @Value("${ml.timeout.health-ms:2000}") long healthTimeoutMillis,
+                            @Value("${ml.bulkhead.max-concurrent:16}") int maxConcurrent,
+                            @Value("${ml.circuit.failure-threshold:5}") int failureThreshold,
+                            @Value("${ml.circuit.open-ms:30000}") long openMillis) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeouts = Map.of(
+                Endpoint.PREDICTION, Duration.ofMillis(predictionTimeoutMillis),
+                Endpoint.CHAT, Duration.ofMillis(chatTimeoutMillis),
+                Endpoint.UPLOAD, Duration.ofMillis(uploadTimeoutMillis),
+                Endpoint.HEALTH, Duration.ofMillis(healthTimeoutMillis));
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "ml-gateway");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The Python service speaks plain HTTP/1.1; skip the h2c upgrade attempt
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(executor)
+                .build();
+        this.bulkhead = new Semaphore(this.maxConcurrent);
+        System.out.println("🤖 [MlGateway] " + this.baseUrl + ", up to " + this.maxConcurrent + " concurrent calls");
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public CompletableFuture<ResponseEntity<String>> postJson(Endpoint endpoint, String path, Object payload) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.completedFuture(error(HttpStatus.BAD_REQUEST, "Invalid request body: " + e.getOriginalMessage()));
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        return call(endpoint, path, request, true);
+    }
+
+    /**
+     * Sends one file as the {@code fieldName} part of a multipart/form-data POST.
+     */
+    public CompletableFuture<ResponseEntity<String>> postFile(Endpoint endpoint, String path, String fieldName,
+                                                              String filename, String contentType, byte[] content) {
+        String boundary = "----farmtech-" + UUID.randomUUID();
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + quote(fieldName) + "\"; filename=\"" + quote(filename) + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        // One array so the request carries a Content-Length instead of being sent chunked
+        byte[] body = new byte[head.length + content.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(content, 0, body, head.length, content.length);
+        System.arraycopy(tail, 0, body, head.length + content.length, tail.length);
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .header(HttpHeaders.CONTENT_TYPE, "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        return call(endpoint, path, request, true);
+    }
+
+    /**
+     * Health probes bypass the circuit breaker (they should report an outage, not be hidden by it)
+     * and do not count towards it.
+     */
+    public CompletableFuture<ResponseEntity<String>> get(Endpoint endpoint, String path) {
+        return call(endpoint, path, HttpRequest.newBuilder().GET(), endpoint != Endpoint.HEALTH);
+    }
+
+    public MlGatewayStats getStats() {
+        String state;
+        synchronized (circuitLock) {
+            state = circuitState.name();
+        }
+        return new MlGatewayStats(
+                baseUrl,
+                state,
+                maxConcurrent - bulkhead.availablePermits(),
+                maxConcurrent,
+                callCount.get(),
+                failureCount.get(),
+                timeoutCount.get(),
+                bulkheadRejections.get(),
+                circuitRejections.get(),
+                callMillis.valueAtQuantile(0.50),
+                callMillis.valueAtQuantile(0.99));
+    }
+
+    private CompletableFuture<ResponseEntity<String>> call(Endpoint endpoint, String path, HttpRequest.Builder request,
+                                                           boolean guarded) {
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejections.incrementAndGet();
+            return CompletableFuture.completedFuture(error(HttpStatus.SERVICE_UNAVAILABLE, "ML service is busy, try again shortly"));
+        }
+        if (guarded && !allowCall()) {
+            bulkhead.release();
+            circuitRejections.incrementAndGet();
+            return CompletableFuture.completedFuture(error(HttpStatus.SERVICE_UNAVAILABLE, "ML service is unavailable, try again later"));
+        }
+
+        callCount.incrementAndGet();
+        long started = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = httpClient.sendAsync(
+                    request.uri(URI.create(baseUrl + path)).timeout(timeouts.get(endpoint)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            failureCount.incrementAndGet();
+            if (guarded) {
+                recordOutcome(false); // also ends a half-open trial, which would otherwise block the circuit for good
+            }
+            return CompletableFuture.completedFuture(error(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage()));
+        }
+
+        return response.handle((upstream, failure) -> {
+            bulkhead.release();
+            callMillis.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            if (failure == null) {
+                boolean serverError = upstream.statusCode() >= 500;
+                if (guarded) {
+                    recordOutcome(!serverError);
+                }
+                if (serverError) {
+                    failureCount.incrementAndGet();
+                }
+                String contentType = upstream.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+                        .orElse(MediaType.APPLICATION_JSON_VALUE);
+                return ResponseEntity.status(upstream.statusCode())
+                        .header(HttpHeaders.CONTENT_TYPE, contentType)
+                        .body(upstream.body());
+            }
+
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            failureCount.incrementAndGet();
+            if (guarded) {
+                recordOutcome(false);
+            }
+            if (cause instanceof HttpTimeoutException) {
+                timeoutCount.incrementAndGet();
+                return error(HttpStatus.GATEWAY_TIMEOUT, "ML service did not answer within " + timeouts.get(endpoint).toMillis() + " ms");
+            }
+            if (cause instanceof IOException) {
+                return error(HttpStatus.SERVICE_UNAVAILABLE, "ML service unreachable: " + cause.getMessage());
+            }
+            System.err.println("❌ [MlGateway] " + path + " failed: " + cause);
+            return error(HttpStatus.BAD_GATEWAY, String.valueOf(cause.getMessage()));
+        });
+    }
+
+    private boolean allowCall() {
+        synchronized (circuitLock) {
+            switch (circuitState) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openUntilNanos < 0) {
+                        return false;
+                    }
+                    circuitState = CircuitState.HALF_OPEN;
+                    trialInFlight = true;
+                    return true;
+                default:
+                    // HALF_OPEN: one trial call at a time
+                    if (trialInFlight) {
+                        return false;
+                    }
+                    trialInFlight = true;
+                    return true;
+            }
+        }
+    }
+
+    private void recordOutcome(boolean success) {
+        synchronized (circuitLock) {
+            trialInFlight = false;
+            if (success) {
+                if (circuitState != CircuitState.CLOSED) {
+                    System.out.println("🤖 [MlGateway] Circuit closed");
+                }
+                circuitState = CircuitState.CLOSED;
+                consecutiveFailures = 0;
+                return;
+            }
+            consecutiveFailures++;
+            if (circuitState == CircuitState.HALF_OPEN
+                    || (circuitState == CircuitState.CLOSED && consecutiveFailures >= failureThreshold)) {
+                circuitState = CircuitState.OPEN;
+                openUntilNanos = System.nanoTime() + openNanos;
+                System.err.println("⚠️ [MlGateway] Circuit opened after " + consecutiveFailures
+                        + " consecutive failures; failing fast for " + TimeUnit.NANOSECONDS.toMillis(openNanos) + " ms");
+            }
+        }
+    }
+
+    private ResponseEntity<String> error(HttpStatus status, String message) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(Map.of("status", "unavailable", "error", message != null ? message : status.getReasonPhrase()));
+        } catch (JsonProcessingException e) {
+            body = "{\"status\":\"unavailable\"}";
+        }
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static String quote(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\r", "").replace("\n", "");
+    }
+
+    public record MlGatewayStats(String baseUrl,
+                                 String circuitState,
+                                 int inFlight,
+                                 int maxConcurrent,
+                                 long callsSinceStartup,
+                                 long failuresSinceStartup,
+                                 long timeoutsSinceStartup,
+                                 long bulkheadRejectionsSinceStartup,
+                                 long circuitRejectionsSinceStartup,
+                                 long callP50Millis,
+                                 long callP99Millis) {}
+}
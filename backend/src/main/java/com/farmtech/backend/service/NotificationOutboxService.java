@@ -0,0 +1,386 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.NotificationOutbox;
+import com.farmtech.backend.entity.NotificationOutbox.NotificationType;
+import com.farmtech.backend.entity.NotificationOutbox.OutboxStatus;
+import com.farmtech.backend.repository.NotificationOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for booking notifications.
+ * Callers enqueue inside their booking transaction; a scheduled dispatcher delivers the
+ * entries afterwards with retries. Delivery is at-least-once: an entry is only marked SENT
+ * after EmailService/SmsService reports success. Emails complete asynchronously on the
+ * EmailDispatcher workers; the claim lease keeps other dispatchers away meanwhile.
+ *
+ * Booking requests to owners are digested: an entry waits up to {@code notifications.digest.window-seconds}
+ * and is then sent together with every other request pending for the same owner, as one email. A digest
+ * is sent early once {@code notifications.digest.max-size} requests are waiting.
+ */
+@Service
+public class NotificationOutboxService {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final SmsService smsService;
+    private final EmailDispatcher emailDispatcher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${notifications.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notifications.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notifications.outbox.initial-backoff-seconds:15}")
+    private long initialBackoffSeconds;
+
+    @Value("${notifications.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${notifications.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${notifications.digest.window-seconds:60}")
+    private long digestWindowSeconds;
+
+    @Value("${notifications.digest.max-size:10}")
+    private int digestMaxSize;
+
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    private final AtomicLong deadLetterCount = new AtomicLong();
+    private volatile long lastDeliveryLagMillis;
+    private final AtomicLong maxDeliveryLagMillis = new AtomicLong();
+    private final AtomicLong digestCount = new AtomicLong();
+    private final AtomicLong digestedRequestCount = new AtomicLong();
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                     EmailService emailService,
+                                     SmsService smsService,
+                                     EmailDispatcher emailDispatcher,
+                                     ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.smsService = smsService;
+        this.emailDispatcher = emailDispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    // ---------------------------------------------------------------- enqueue
+
+    @Transactional
+    public void enqueueBookingConfirmationToBooker(String to, String bookerName, String equipmentName,
+                                                   String startDate, Integer hours, Long bookingId) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("bookerName", bookerName);
+        payload.put("equipmentName", equipmentName);
+        payload.put("startDate", startDate);
+        payload.put("hours", hours);
+        payload.put("bookingId", bookingId);
+        enqueue(NotificationType.BOOKING_CONFIRMATION_TO_BOOKER, to, payload);
+    }
+
+    @Transactional
+    public void enqueueBookingRequestToOwner(String to, String ownerName, String equipmentName,
+                                             String bookerName, String bookerPhone, String bookerEmail,
+                                             String location, String startDate, Integer hours, Long bookingId) {
+        Map<String, Object> payload =
+                ownerPayload(ownerName, equipmentName, bookerName, bookerPhone, bookerEmail, location, startDate, hours, bookingId);
+        if (to == null || to.isBlank()) {
+            enqueue(NotificationType.BOOKING_REQUEST_TO_OWNER, to, payload);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long waiting = outboxRepository.countDigestable(to, NotificationType.BOOKING_REQUEST_TO_OWNER, OutboxStatus.PENDING, now);
+        if (digestWindowSeconds <= 0 || waiting + 1 >= digestMaxSize) {
+            // Digest full (or digesting off): send what is waiting for this owner on the next poll
+            outboxRepository.makeDue(to, NotificationType.BOOKING_REQUEST_TO_OWNER, OutboxStatus.PENDING, now);
+            enqueue(NotificationType.BOOKING_REQUEST_TO_OWNER, to, payload, now);
+        } else {
+            enqueue(NotificationType.BOOKING_REQUEST_TO_OWNER, to, payload, now.plusSeconds(digestWindowSeconds));
+        }
+    }
+
+    @Transactional
+    public void enqueueBookingAcceptanceToBooker(String to, String bookerName, String equipmentName,
+                                                 String ownerName, String ownerPhone, Long bookingId) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("bookerName", bookerName);
+        payload.put("equipmentName", equipmentName);
+        payload.put("ownerName", ownerName);
+        payload.put("ownerPhone", ownerPhone);
+        payload.put("bookingId", bookingId);
+        enqueue(NotificationType.BOOKING_ACCEPTANCE_TO_BOOKER, to, payload);
+    }
+
+    @Transactional
+    public void enqueueBookingAcceptanceToOwner(String to, String ownerName, String equipmentName,
+                                                String bookerName, String bookerPhone, String bookerEmail,
+                                                String location, String startDate, Integer hours, Long bookingId) {
+        enqueue(NotificationType.BOOKING_ACCEPTANCE_TO_OWNER, to,
+                ownerPayload(ownerName, equipmentName, bookerName, bookerPhone, bookerEmail, location, startDate, hours, bookingId));
+    }
+
+    @Transactional
+    public void enqueueSms(String to, String message) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("message", message);
+        enqueue(NotificationType.SMS, to, payload);
+    }
+
+    private Map<String, Object> ownerPayload(String ownerName, String equipmentName,
+                                             String bookerName, String bookerPhone, String bookerEmail,
+                                             String location, String startDate, Integer hours, Long bookingId) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("ownerName", ownerName);
+        payload.put("equipmentName", equipmentName);
+        payload.put("bookerName", bookerName);
+        payload.put("bookerPhone", bookerPhone);
+        payload.put("bookerEmail", bookerEmail);
+        payload.put("location", location);
+        payload.put("startDate", startDate);
+        payload.put("hours", hours);
+        payload.put("bookingId", bookingId);
+        return payload;
+    }
+
+    private void enqueue(NotificationType type, String recipient, Map<String, Object> payload) {
+        enqueue(type, recipient, payload, LocalDateTime.now());
+    }
+
+    private void enqueue(NotificationType type, String recipient, Map<String, Object> payload, LocalDateTime sendAfter) {
+        if (recipient == null || recipient.isBlank()) {
+            System.out.println("⚠️ [Outbox] Skipping " + type + " - recipient is empty");
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        NotificationOutbox entry = new NotificationOutbox();
+        entry.setType(type);
+        entry.setRecipient(recipient);
+        entry.setPayload(writePayload(payload));
+        entry.setStatus(OutboxStatus.PENDING);
+        entry.setCreatedAt(now);
+        entry.setNextAttemptAt(sendAfter);
+        outboxRepository.save(entry);
+        System.out.println("📮 [Outbox] Queued " + type + " for " + recipient);
+    }
+
+    // --------------------------------------------------------------- dispatch
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:2000}")
+    public void dispatchDue() {
+        // Backpressure: don't claim more than the email queue can take right now
+        int capacity = Math.min(batchSize, emailDispatcher.remainingCapacity());
+        if (capacity == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> due = outboxRepository.findDue(OutboxStatus.PENDING, now, PageRequest.of(0, capacity));
+        for (NotificationOutbox entry : due) {
+            // Retries of a failed digest go out one by one on their own back-off
+            if (entry.getType() == NotificationType.BOOKING_REQUEST_TO_OWNER && entry.getAttempts() == 0) {
+                deliverDigest(entry.getRecipient(), now);
+                continue;
+            }
+            if (outboxRepository.claim(entry.getId(), OutboxStatus.PENDING, now, now.plusSeconds(leaseSeconds)) == 0) {
+                continue; // picked up elsewhere
+            }
+            deliver(entry);
+        }
+    }
+
+    private void deliver(NotificationOutbox entry) {
+        CompletableFuture<Boolean> result;
+        try {
+            result = send(entry);
+        } catch (Exception e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((delivered, failure) -> recordOutcome(entry, delivered, failure));
+    }
+
+    /**
+     * Claims every booking request pending for this owner (up to the digest size) and sends them as one
+     * email; a single request still goes out with the regular template. Each entry records the outcome.
+     * Requests that already failed once are not taken: they are retried alone once their back-off ends.
+     */
+    private void deliverDigest(String recipient, LocalDateTime now) {
+        List<NotificationOutbox> waiting = outboxRepository.findUnleasedForRecipient(recipient,
+                NotificationType.BOOKING_REQUEST_TO_OWNER, OutboxStatus.PENDING, now, PageRequest.of(0, Math.max(1, digestMaxSize)));
+        List<NotificationOutbox> claimed = new ArrayList<>(waiting.size());
+        for (NotificationOutbox entry : waiting) {
+            if (outboxRepository.claim(entry.getId(), OutboxStatus.PENDING, now, now.plusSeconds(leaseSeconds)) == 1) {
+                claimed.add(entry);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return; // this owner's requests went out with an earlier digest
+        }
+        if (claimed.size() == 1) {
+            deliver(claimed.get(0));
+            return;
+        }
+
+        CompletableFuture<Boolean> result;
+        try {
+            List<EmailService.BookingRequestSummary> requests = new ArrayList<>(claimed.size());
+            for (NotificationOutbox entry : claimed) {
+                Map<String, Object> p = readPayload(entry.getPayload());
+                requests.add(new EmailService.BookingRequestSummary(longValue(p, "bookingId"), str(p, "equipmentName"),
+                        str(p, "bookerName"), str(p, "bookerPhone"), str(p, "location"), str(p, "startDate"), integer(p, "hours")));
+            }
+            result = emailService.sendBookingRequestDigestToOwner(recipient, requests);
+        } catch (Exception e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        digestCount.incrementAndGet();
+        digestedRequestCount.addAndGet(claimed.size());
+        System.out.println("📬 [Outbox] Sending " + claimed.size() + " booking requests to " + recipient + " as one digest");
+        result.whenComplete((delivered, failure) -> claimed.forEach(entry -> recordOutcome(entry, delivered, failure)));
+    }
+
+    private void recordOutcome(NotificationOutbox entry, Boolean delivered, Throwable failure) {
+        String error = null;
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        } else if (!Boolean.TRUE.equals(delivered)) {
+            error = "Delivery reported failure";
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (error == null) {
+            outboxRepository.markSent(entry.getId(), OutboxStatus.SENT, now);
+            long lag = Duration.between(entry.getCreatedAt(), now).toMillis();
+            lastDeliveryLagMillis = lag;
+            maxDeliveryLagMillis.accumulateAndGet(lag, Math::max);
+            deliveredCount.incrementAndGet();
+            return;
+        }
+
+        failedAttemptCount.incrementAndGet();
+        int attempts = entry.getAttempts() + 1;
+        if (error != null && error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+        if (attempts >= maxAttempts) {
+            outboxRepository.markAttemptFailed(entry.getId(), OutboxStatus.FAILED, now, error);
+            deadLetterCount.incrementAndGet();
+            System.err.println("❌ [Outbox] Giving up on " + entry.getType() + " #" + entry.getId() + " after " + attempts + " attempts: " + error);
+        } else {
+            long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 20));
+            outboxRepository.markAttemptFailed(entry.getId(), OutboxStatus.PENDING, now.plusSeconds(backoff), error);
+            System.err.println("⚠️ [Outbox] " + entry.getType() + " #" + entry.getId() + " failed (attempt " + attempts + "), retrying in " + backoff + "s");
+        }
+    }
+
+    private CompletableFuture<Boolean> send(NotificationOutbox entry) {
+        Map<String, Object> p = readPayload(entry.getPayload());
+        String to = entry.getRecipient();
+        switch (entry.getType()) {
+            case BOOKING_CONFIRMATION_TO_BOOKER:
+                return emailService.sendBookingConfirmationToBooker(to, str(p, "bookerName"), str(p, "equipmentName"),
+                        str(p, "startDate"), integer(p, "hours"), longValue(p, "bookingId"));
+            case BOOKING_REQUEST_TO_OWNER:
+                return emailService.sendBookingRequestToOwner(to, str(p, "ownerName"), str(p, "equipmentName"),
+                        str(p, "bookerName"), str(p, "bookerPhone"), str(p, "bookerEmail"),
+                        str(p, "location"), str(p, "startDate"), integer(p, "hours"), longValue(p, "bookingId"));
+            case BOOKING_ACCEPTANCE_TO_BOOKER:
+                return emailService.sendBookingAcceptanceToBooker(to, str(p, "bookerName"), str(p, "equipmentName"),
+                        str(p, "ownerName"), str(p, "ownerPhone"), longValue(p, "bookingId"));
+            case BOOKING_ACCEPTANCE_TO_OWNER:
+                return emailService.sendBookingAcceptanceToOwner(to, str(p, "ownerName"), str(p, "equipmentName"),
+                        str(p, "bookerName"), str(p, "bookerPhone"), str(p, "bookerEmail"),
+                        str(p, "location"), str(p, "startDate"), integer(p, "hours"), longValue(p, "bookingId"));
+            case SMS:
+                return smsService.sendSmsAsync(to, str(p, "message"));
+            default:
+                throw new IllegalStateException("Unsupported notification type: " + entry.getType());
+        }
+    }
+
+    // ---------------------------------------------------------------- metrics
+
+    public OutboxStats getStats() {
+        LocalDateTime oldestPending = outboxRepository.findOldestCreatedAt(OutboxStatus.PENDING);
+        Long oldestPendingAgeSeconds = oldestPending != null
+                ? Duration.between(oldestPending, LocalDateTime.now()).getSeconds()
+                : null;
+        return new OutboxStats(
+                outboxRepository.countByStatus(OutboxStatus.PENDING),
+                outboxRepository.countByStatus(OutboxStatus.FAILED),
+                oldestPendingAgeSeconds,
+                lastDeliveryLagMillis,
+                maxDeliveryLagMillis.get(),
+                deliveredCount.get(),
+                failedAttemptCount.get(),
+                deadLetterCount.get(),
+                digestCount.get(),
+                digestedRequestCount.get()
+        );
+    }
+
+    public record OutboxStats(long pending,
+                              long failed,
+                              Long oldestPendingAgeSeconds,
+                              long lastDeliveryLagMillis,
+                              long maxDeliveryLagMillis,
+                              long deliveredSinceStartup,
+                              long failedAttemptsSinceStartup,
+                              long gaveUpSinceStartup,
+                              long digestsSinceStartup,
+                              long digestedRequestsSinceStartup) {}
+
+    // ---------------------------------------------------------------- helpers
+
+    private String writePayload(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize notification payload", e);
+        }
+    }
+
+    private Map<String, Object> readPayload(String json) {
+        try {
+            return objectMapper.readValue(json, PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read notification payload", e);
+        }
+    }
+
+    private static String str(Map<String, Object> payload, String key) {
+        Object value = payload.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    private static Integer integer(Map<String, Object> payload, String key) {
+        Object value = payload.get(key);
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    private static Long longValue(Map<String, Object> payload, String key) {
+        Object value = payload.get(key);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
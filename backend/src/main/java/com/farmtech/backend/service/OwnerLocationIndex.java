@@ -0,0 +1,349 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.Farmer;
+import com.farmtech.backend.entity.User;
+import com.farmtech.backend.repository.FarmerRepository;
+import com.farmtech.backend.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory grid index of OWNER accounts keyed by their Farmer coordinates.
+ * Candidate selection queries this index instead of loading every owner from MySQL.
+ * Owners without usable coordinates (null or 0.0/0.0) are placed at their pincode/village from the
+ * offline {@link Gazetteer} when possible, and tracked separately otherwise.
+ *
+ * Each cell keeps its owners' coordinates in primitive arrays, replaced copy-on-write under the
+ * index lock, so a query runs {@link DistanceService#withinRadius} over them without locking.
+ */
+@Service
+public class OwnerLocationIndex {
+
+    // 0.25 degrees is roughly 28 km of latitude, so a 50 km search touches a handful of cells
+    private static final double CELL_SIZE_DEG = 0.25;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final FarmerRepository farmerRepository;
+    private final UserRepository userRepository;
+    private final DistanceService distanceService;
+    private final Gazetteer gazetteer;
+
+    private final Map<Long, IndexedOwner> ownersByFarmerId = new ConcurrentHashMap<>();
+    private final Map<Long, Long> farmerIdByUserId = new ConcurrentHashMap<>();
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final Set<Long> unlocatedOwners = ConcurrentHashMap.newKeySet();
+
+    public OwnerLocationIndex(FarmerRepository farmerRepository,
+                              UserRepository userRepository,
+                              DistanceService distanceService,
+                              Gazetteer gazetteer) {
+        this.farmerRepository = farmerRepository;
+        this.userRepository = userRepository;
+        this.distanceService = distanceService;
+        this.gazetteer = gazetteer;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        ownersByFarmerId.clear();
+        farmerIdByUserId.clear();
+        cells.clear();
+        unlocatedOwners.clear();
+
+        List<User> ownerUsers = userRepository.findByRole("OWNER");
+        Map<String, Farmer> farmersByPhone = farmerRepository.findByPhoneIn(
+                        ownerUsers.stream().map(User::getPhone).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Farmer::getPhone, Function.identity(), (a, b) -> a));
+
+        // Read-only: owners without a Farmer profile get one through refreshOwner (registration, user edits, login)
+        int withoutProfile = 0;
+        for (User ownerUser : ownerUsers) {
+            Farmer farmer = farmersByPhone.get(ownerUser.getPhone());
+            if (farmer == null) {
+                withoutProfile++;
+                continue;
+            }
+            put(ownerUser, farmer);
+        }
+
+        long approximated = ownersByFarmerId.values().stream().filter(IndexedOwner::approximate).count();
+        System.out.println("📍 [OwnerLocationIndex] Indexed " + ownersByFarmerId.size() + " owners ("
+                + approximated + " placed by pincode/village, " + unlocatedOwners.size() + " without coordinates) in "
+                + cells.size() + " cells; " + withoutProfile + " OWNER users have no Farmer profile yet");
+    }
+
+    /**
+     * Re-reads an owner's position after their User record changed (role, phone or coordinates).
+     * An OWNER without a Farmer profile gets one, so they are invited from their first booking on.
+     */
+    public synchronized void refreshOwner(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        removeUser(user.getId());
+        if (!"OWNER".equals(user.getRole()) || user.getPhone() == null) {
+            return;
+        }
+        Farmer farmer = farmerRepository.findByPhone(user.getPhone()).orElse(null);
+        if (farmer == null) {
+            if (user.getEmail() == null || user.getEmail().isBlank() || user.getPassword() == null) {
+                System.out.println("⚠️ [OwnerLocationIndex] OWNER User ID: " + user.getId() + " has no email/password, not creating a Farmer profile");
+                return;
+            }
+            // Same auto-provisioning the booking flow used to do per request
+            Farmer newFarmer = new Farmer();
+            newFarmer.setName(user.getName());
+            newFarmer.setEmail(user.getEmail());
+            newFarmer.setPhone(user.getPhone());
+            newFarmer.setPassword(user.getPassword());
+            newFarmer.setAddress(user.getAddress());
+            farmer = farmerRepository.save(newFarmer);
+            System.out.println("✅ [OwnerLocationIndex] Created Farmer ID: " + farmer.getId() + " for OWNER User ID: " + user.getId());
+        }
+        put(user, farmer);
+    }
+
+    /**
+     * Re-positions an already indexed owner after their Farmer profile changed.
+     */
+    public synchronized void refreshFarmer(Farmer farmer) {
+        if (farmer == null || farmer.getId() == null) {
+            return;
+        }
+        IndexedOwner existing = ownersByFarmerId.get(farmer.getId());
+        if (existing == null) {
+            // Not indexed yet (e.g. phone just changed to match an OWNER user)
+            userRepository.findByPhone(farmer.getPhone())
+                    .filter(user -> "OWNER".equals(user.getRole()))
+                    .ifPresent(user -> put(user, farmer));
+            return;
+        }
+        userRepository.findById(existing.userId()).ifPresentOrElse(user -> {
+            if (user.getPhone() != null && user.getPhone().equals(farmer.getPhone())) {
+                put(user, farmer);
+            } else {
+                removeUser(user.getId());
+            }
+        }, () -> removeUser(existing.userId()));
+    }
+
+    public synchronized void removeUser(Long userId) {
+        Long farmerId = farmerIdByUserId.remove(userId);
+        if (farmerId == null) {
+            return;
+        }
+        IndexedOwner removed = ownersByFarmerId.remove(farmerId);
+        unlocatedOwners.remove(farmerId);
+        if (removed != null && removed.located()) {
+            cells.computeIfPresent(cellKey(removed.latitude(), removed.longitude()), (key, cell) -> cell.without(farmerId));
+        }
+    }
+
+    /**
+     * Owners within {@code radiusKm} of the given point, nearest first.
+     */
+    public List<Neighbor> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        return findNearest(latitude, longitude, radiusKm, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The {@code limit} nearest owners within {@code radiusKm}, nearest first.
+     * Keeps a bounded max-heap of size {@code limit} instead of sorting every owner in range.
+     */
+    public List<Neighbor> findNearest(double latitude, double longitude, double radiusKm, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        double latSpan = radiusKm / KM_PER_DEGREE_LAT;
+        double lonSpan = radiusKm / (KM_PER_DEGREE_LAT * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+
+        int minLatCell = cellIndex(latitude - latSpan);
+        int maxLatCell = cellIndex(latitude + latSpan);
+        int minLonCell = cellIndex(longitude - lonSpan);
+        int maxLonCell = cellIndex(longitude + lonSpan);
+
+        PriorityQueue<Neighbor> farthestFirst = new PriorityQueue<>(
+                Math.min(limit, 64), Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (int lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                Cell cell = cells.get(cellKey(latCell, lonCell));
+                if (cell == null) {
+                    continue;
+                }
+                Scratch buffers = scratch.get().ensureCapacity(cell.size());
+                int found = distanceService.withinRadius(latitude, longitude, radiusKm,
+                        cell.latitudes(), cell.longitudes(), cell.cosLatitudes(), cell.size(),
+                        buffers.indexes, buffers.distances);
+                for (int i = 0; i < found; i++) {
+                    long farmerId = cell.farmerIds()[buffers.indexes[i]];
+                    double distance = buffers.distances[i];
+                    if (farthestFirst.size() < limit) {
+                        farthestFirst.add(new Neighbor(farmerId, distance));
+                    } else if (distance < farthestFirst.peek().distanceKm()) {
+                        farthestFirst.poll();
+                        farthestFirst.add(new Neighbor(farmerId, distance));
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(farthestFirst);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    public List<Long> unlocatedOwnerIds() {
+        return new ArrayList<>(unlocatedOwners);
+    }
+
+    public List<Long> allOwnerIds() {
+        return new ArrayList<>(ownersByFarmerId.keySet());
+    }
+
+    public int size() {
+        return ownersByFarmerId.size();
+    }
+
+    private void put(User user, Farmer farmer) {
+        Long previousFarmerId = farmerIdByUserId.get(user.getId());
+        if (previousFarmerId != null) {
+            removeUser(user.getId());
+        }
+        IndexedOwner stale = ownersByFarmerId.get(farmer.getId());
+        if (stale != null) {
+            removeUser(stale.userId());
+        }
+
+        // Prefer the Farmer profile coordinates, fall back to the User account's
+        Double latitude = farmer.getLatitude();
+        Double longitude = farmer.getLongitude();
+        if (!isUsable(latitude, longitude)) {
+            latitude = user.getLatitude();
+            longitude = user.getLongitude();
+        }
+        boolean approximate = false;
+        if (!isUsable(latitude, longitude)) {
+            Optional<GeocodingService.Coordinates> coarse = gazetteer.locate(user.getPincode(),
+                    farmer.getVillage() != null ? farmer.getVillage() : user.getVillage(),
+                    farmer.getAddress() != null ? farmer.getAddress() : user.getAddress());
+            if (coarse.isPresent()) {
+                latitude = coarse.get().latitude();
+                longitude = coarse.get().longitude();
+                approximate = true;
+            }
+        }
+
+        IndexedOwner owner;
+        if (isUsable(latitude, longitude)) {
+            owner = new IndexedOwner(farmer.getId(), user.getId(), latitude, longitude, true, approximate);
+            double cellLatitude = latitude;
+            double cellLongitude = longitude;
+            cells.compute(cellKey(latitude, longitude), (key, cell) -> (cell != null ? cell : Cell.EMPTY)
+                    .with(farmer.getId(), cellLatitude, cellLongitude));
+        } else {
+            owner = new IndexedOwner(farmer.getId(), user.getId(), 0.0, 0.0, false, false);
+            unlocatedOwners.add(farmer.getId());
+        }
+        ownersByFarmerId.put(farmer.getId(), owner);
+        farmerIdByUserId.put(user.getId(), farmer.getId());
+    }
+
+    static boolean isUsable(Double latitude, Double longitude) {
+        return latitude != null && longitude != null && !(latitude == 0.0 && longitude == 0.0);
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE_DEG);
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    // approximate: placed by the gazetteer, not by stored coordinates
+    private record IndexedOwner(Long farmerId, Long userId, double latitude, double longitude, boolean located,
+                                boolean approximate) {}
+
+    // Immutable; parallel arrays of the located owners in one grid cell
+    private record Cell(long[] farmerIds, double[] latitudes, double[] longitudes, double[] cosLatitudes) {
+
+        static final Cell EMPTY = new Cell(new long[0], new double[0], new double[0], new double[0]);
+
+        int size() {
+            return farmerIds.length;
+        }
+
+        Cell with(long farmerId, double latitude, double longitude) {
+            int n = size();
+            Cell grown = new Cell(Arrays.copyOf(farmerIds, n + 1), Arrays.copyOf(latitudes, n + 1),
+                    Arrays.copyOf(longitudes, n + 1), Arrays.copyOf(cosLatitudes, n + 1));
+            grown.farmerIds[n] = farmerId;
+            grown.latitudes[n] = latitude;
+            grown.longitudes[n] = longitude;
+            grown.cosLatitudes[n] = DistanceService.cosLatitude(latitude);
+            return grown;
+        }
+
+        // null (drops the cell from the map) once the last owner leaves
+        Cell without(long farmerId) {
+            int n = size();
+            int index = 0;
+            while (index < n && farmerIds[index] != farmerId) {
+                index++;
+            }
+            if (index == n) {
+                return this;
+            }
+            if (n == 1) {
+                return null;
+            }
+            Cell shrunk = new Cell(new long[n - 1], new double[n - 1], new double[n - 1], new double[n - 1]);
+            copyWithout(farmerIds, shrunk.farmerIds, index, n);
+            copyWithout(latitudes, shrunk.latitudes, index, n);
+            copyWithout(longitudes, shrunk.longitudes, index, n);
+            copyWithout(cosLatitudes, shrunk.cosLatitudes, index, n);
+            return shrunk;
+        }
+
+        private static void copyWithout(Object source, Object target, int index, int n) {
+            System.arraycopy(source, 0, target, 0, index);
+            System.arraycopy(source, index + 1, target, index, n - index - 1);
+        }
+    }
+
+    // Per-thread output buffers for withinRadius, grown to the largest cell seen
+    private static final class Scratch {
+        int[] indexes = new int[16];
+        double[] distances = new double[16];
+
+        Scratch ensureCapacity(int size) {
+            if (indexes.length < size) {
+                int capacity = Math.max(size, indexes.length * 2);
+                indexes = new int[capacity];
+                distances = new double[capacity];
+            }
+            return this;
+        }
+    }
+
+    public record Neighbor(Long farmerId, double distanceKm) {}
+}
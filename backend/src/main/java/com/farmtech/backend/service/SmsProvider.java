@@ -0,0 +1,15 @@
+package com.farmtech.backend.service;
+
+/**
+ * Delivers one SMS. SmsService picks the implementation from {@code sms.provider} and calls it from
+ * its worker threads, so implementations may block but must be thread-safe.
+ */
+public interface SmsProvider {
+
+    /**
+     * @throws Exception when the message was not accepted; SmsService retries it with backoff
+     */
+    void send(String to, String message) throws Exception;
+
+    String name();
+}
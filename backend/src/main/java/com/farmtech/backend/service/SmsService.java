@@ -1,9 +1,31 @@
 package com.farmtech.backend.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-// If Twilio SDK is not present yet, this service will no-op (log only).
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends SMS through the provider chosen by {@code sms.provider}: {@code twilio} (falls back to logging
+ * when Twilio is not configured or its library is missing), {@code stub} for offline load tests, or
+ * {@code log}.
+ *
+ * sendSmsAsync() queues the message for background workers that share one token bucket
+ * ({@code sms.rate.per-second}, bursts of {@code sms.rate.burst}) and retry failed sends with
+ * exponential backoff. sendSms() sends on the caller's thread under the same rate limit.
+ */
 @Service
 public class SmsService {
 
@@ -19,33 +41,256 @@ public class SmsService {
     @Value("${sms.enabled:false}")
     private boolean smsEnabled;
 
-    public void sendSms(String to, String message) {
+    @Value("${sms.provider:twilio}")
+    private String providerName;
+
+    @Value("${sms.stub.latency-ms:50}")
+    private long stubLatencyMillis;
+
+    @Value("${sms.stub.failure-rate:0}")
+    private double stubFailureRate;
+
+    @Value("${sms.rate.per-second:10}")
+    private double permitsPerSecond;
+
+    @Value("${sms.rate.burst:20}")
+    private int burst;
+
+    @Value("${sms.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${sms.async.workers:4}")
+    private int workerCount;
+
+    @Value("${sms.async.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${sms.async.initial-backoff-ms:2000}")
+    private long initialBackoffMillis;
+
+    private SmsProvider provider;
+    private TokenBucket rateLimiter;
+    private BlockingQueue<SmsJob> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sms-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Milliseconds, up to ~18 hours
+    private final LogLinearHistogram sendMillis = new LogLinearHistogram(6, 1L << 26);
+
+    @PostConstruct
+    public void start() {
+        provider = createProvider();
+        rateLimiter = new TokenBucket(permitsPerSecond, burst);
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
         if (!smsEnabled) {
-            // Feature disabled: do nothing
             return;
         }
+        running = true;
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::runWorker, "sms-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        System.out.println("📱 [SmsService] Provider " + provider.name() + ", " + workers.size() + " workers, "
+                + permitsPerSecond + " msg/s (burst " + burst + ")");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        retryScheduler.shutdownNow();
+        // Outbox entries still queued here go out again once their lease expires
+        List<SmsJob> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.forEach(job -> job.result().complete(false));
+    }
+
+    /**
+     * Sends on the caller's thread, waiting for a rate-limit token if needed.
+     */
+    public boolean sendSms(String to, String message) {
+        if (!smsEnabled) {
+            // Feature disabled: do nothing
+            return true;
+        }
         try {
-            if (accountSid == null || accountSid.isBlank() || authToken == null || authToken.isBlank()) {
-                System.out.println("[SmsService] Twilio not configured. Would send to " + to + ": " + message);
-                return;
+            rateLimiter.acquire();
+            provider.send(to, message);
+            sentCount.incrementAndGet();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            System.err.println("[SmsService] Failed to send SMS: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Queues a message for the background workers.
+     *
+     * @return completes with true once sent, false when the provider kept failing, or exceptionally
+     *         with RejectedExecutionException when the queue was full
+     */
+    public CompletableFuture<Boolean> sendSmsAsync(String to, String message) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (!smsEnabled) {
+            result.complete(true);
+            return result;
+        }
+        if (!running || !queue.offer(new SmsJob(to, message, 1, result))) {
+            rejectedCount.incrementAndGet();
+            result.completeExceptionally(new RejectedExecutionException("SMS queue is full"));
+            return result;
+        }
+        submittedCount.incrementAndGet();
+        return result;
+    }
+
+    public SmsStats getStats() {
+        return new SmsStats(
+                smsEnabled,
+                provider != null ? provider.name() : null,
+                queue != null ? queue.size() : 0,
+                inFlight.get(),
+                submittedCount.get(),
+                sentCount.get(),
+                failedCount.get(),
+                rejectedCount.get(),
+                retryCount.get(),
+                sendMillis.valueAtQuantile(0.50),
+                sendMillis.valueAtQuantile(0.99));
+    }
+
+    private SmsProvider createProvider() {
+        switch (providerName.trim().toLowerCase()) {
+            case "stub":
+                return new LocalStubSmsProvider(stubLatencyMillis, stubFailureRate);
+            case "log":
+                return loggingProvider("log");
+            case "twilio":
+                if (accountSid == null || accountSid.isBlank() || authToken == null || authToken.isBlank()) {
+                    System.out.println("[SmsService] Twilio not configured; messages will only be logged");
+                    return loggingProvider("log (twilio not configured)");
+                }
+                try {
+                    return new TwilioSmsProvider(accountSid, authToken, fromNumber);
+                } catch (ClassNotFoundException e) {
+                    System.out.println("[SmsService] Twilio library missing; messages will only be logged");
+                    return loggingProvider("log (twilio library missing)");
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Could not initialise Twilio: " + t.getMessage(), t);
+                }
+            default:
+                throw new IllegalStateException("Unknown sms.provider: " + providerName);
+        }
+    }
+
+    private static SmsProvider loggingProvider(String name) {
+        return new SmsProvider() {
+            @Override
+            public void send(String to, String message) {
+                System.out.println("[SmsService] Would send to " + to + ": " + message);
+            }
+
+            @Override
+            public String name() {
+                return name;
+            }
+        };
+    }
+
+    private void runWorker() {
+        while (running) {
+            SmsJob job;
+            try {
+                job = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                break;
             }
-            // Use reflection to avoid compile-time dependency when Twilio lib is not present yet
-            Class<?> twilioClass = Class.forName("com.twilio.Twilio");
-            twilioClass.getMethod("init", String.class, String.class).invoke(null, accountSid, authToken);
-
-            Class<?> phoneNumberClass = Class.forName("com.twilio.type.PhoneNumber");
-            Object toNumber = phoneNumberClass.getConstructor(String.class).newInstance(to);
-            Object fromNum = phoneNumberClass.getConstructor(String.class).newInstance(fromNumber);
-
-            Class<?> messageClass = Class.forName("com.twilio.rest.api.v2010.account.Message");
-            Object creator = messageClass
-                    .getMethod("creator", phoneNumberClass, phoneNumberClass, String.class)
-                    .invoke(null, toNumber, fromNum, message);
-            creator.getClass().getMethod("create").invoke(creator);
-        } catch (ClassNotFoundException e) {
-            System.out.println("[SmsService] Twilio library missing. Would send to " + to + ": " + message);
-        } catch (Throwable t) {
-            System.err.println("[SmsService] Failed to send SMS: " + t.getMessage());
-        }
-    }
-}
\ No newline at end of file
+            if (job == null) {
+                continue;
+            }
+            try {
+                rateLimiter.acquire();
+            } catch (InterruptedException e) {
+                // Already off the queue, so nobody else will answer its caller
+                job.result().complete(false);
+                break;
+            }
+            deliver(job);
+        }
+    }
+
+    private void deliver(SmsJob job) {
+        long started = System.nanoTime();
+        inFlight.incrementAndGet();
+        try {
+            provider.send(job.to(), job.message());
+            sendMillis.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            sentCount.incrementAndGet();
+            job.result().complete(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.result().complete(false);
+        } catch (Exception e) {
+            retryOrFail(job, e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void retryOrFail(SmsJob job, Exception e) {
+        // A malformed number or message fails the same way every time
+        boolean permanent = e instanceof IllegalArgumentException;
+        if (permanent || job.attempt() >= maxAttempts || !running) {
+            failedCount.incrementAndGet();
+            System.err.println("[SmsService] Giving up on SMS to " + job.to() + " after " + job.attempt()
+                    + " attempt(s): " + e.getMessage());
+            job.result().complete(false);
+            return;
+        }
+        long backoff = initialBackoffMillis << Math.min(job.attempt() - 1, 16);
+        retryCount.incrementAndGet();
+        SmsJob retry = new SmsJob(job.to(), job.message(), job.attempt() + 1, job.result());
+        try {
+            retryScheduler.schedule(() -> {
+                if (!queue.offer(retry)) {
+                    rejectedCount.incrementAndGet();
+                    retry.result().complete(false);
+                }
+            }, backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException shuttingDown) {
+            job.result().complete(false);
+        }
+    }
+
+    private record SmsJob(String to, String message, int attempt, CompletableFuture<Boolean> result) {}
+
+    public record SmsStats(boolean enabled,
+                           String provider,
+                           int queueDepth,
+                           int inFlight,
+                           long submittedSinceStartup,
+                           long sentSinceStartup,
+                           long failedSinceStartup,
+                           long rejectedSinceStartup,
+                           long retriesSinceStartup,
+                           long sendP50Millis,
+                           long sendP99Millis) {}
+}
@@ -0,0 +1,105 @@
+package com.farmtech.backend.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One EmailDispatcher worker's SMTP session. The connection (TCP + STARTTLS + AUTH) is opened on
+ * first use and reused for the following messages, then closed after {@code maxMessages} messages
+ * or once it has been idle for a while. Not thread-safe: each worker owns one.
+ */
+final class SmtpConnection {
+
+    private final JavaMailSenderImpl sender;
+    private final int maxMessages;
+    private final AtomicLong connectionsOpened;
+
+    private Transport transport;
+    private int messagesOnConnection;
+    private long lastUsedNanos;
+
+    SmtpConnection(JavaMailSenderImpl sender, int maxMessages, AtomicLong connectionsOpened) {
+        this.sender = sender;
+        this.maxMessages = Math.max(1, maxMessages);
+        this.connectionsOpened = connectionsOpened;
+    }
+
+    void send(MimeMessage message) throws MessagingException {
+        prepare(message);
+        if (transport != null && messagesOnConnection >= maxMessages) {
+            close();
+        }
+        boolean reused = transport != null;
+        if (!reused) {
+            open();
+        }
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (SendFailedException e) {
+            throw e; // rejected recipients; the connection itself is fine
+        } catch (MessagingException | IllegalStateException e) {
+            close();
+            if (!reused) {
+                throw e;
+            }
+            // The server may have dropped a connection we kept open: try once more on a fresh one
+            open();
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException | IllegalStateException retryFailure) {
+                close();
+                throw retryFailure;
+            }
+        }
+        messagesOnConnection++;
+        lastUsedNanos = System.nanoTime();
+    }
+
+    void closeIfIdle(long idleMillis) {
+        if (transport != null && System.nanoTime() - lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(idleMillis)) {
+            close();
+        }
+    }
+
+    void close() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            // Already broken; nothing left to release
+        }
+        transport = null;
+        messagesOnConnection = 0;
+    }
+
+    private void open() throws MessagingException {
+        String protocol = sender.getProtocol() != null ? sender.getProtocol() : "smtp";
+        Transport opened = sender.getSession().getTransport(protocol);
+        opened.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        transport = opened;
+        messagesOnConnection = 0;
+        lastUsedNanos = System.nanoTime();
+        connectionsOpened.incrementAndGet();
+    }
+
+    // Same finishing steps JavaMailSenderImpl.send applies before handing a message to the Transport
+    private static void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+}
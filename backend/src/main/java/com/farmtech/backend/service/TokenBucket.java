@@ -0,0 +1,45 @@
+package com.farmtech.backend.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter: {@code permitsPerSecond} on average with bursts of up to {@code burst}.
+ *
+ * acquire() reserves a token up front and then sleeps off any debt outside the lock, so concurrent
+ * callers are spaced out evenly instead of all waking at the same refill.
+ */
+final class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / permitsPerSecond * 1_000_000_000L);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerSecond / 1_000_000_000L);
+        lastRefillNanos = now;
+    }
+}
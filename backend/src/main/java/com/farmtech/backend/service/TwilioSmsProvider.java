@@ -0,0 +1,54 @@
+package com.farmtech.backend.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Sends through the Twilio SDK without a compile-time dependency on it. The classes and methods are
+ * resolved into MethodHandles once, and Twilio.init runs once, when the provider is created.
+ */
+final class TwilioSmsProvider implements SmsProvider {
+
+    private final MethodHandle newPhoneNumber;   // (String) -> PhoneNumber
+    private final MethodHandle messageCreator;   // (PhoneNumber, PhoneNumber, String) -> MessageCreator
+    private final MethodHandle create;           // (MessageCreator) -> Message
+    private final Object fromNumber;
+
+    /**
+     * @throws ClassNotFoundException when the Twilio library is not on the classpath
+     */
+    TwilioSmsProvider(String accountSid, String authToken, String fromNumber) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Class<?> twilioClass = Class.forName("com.twilio.Twilio");
+        Class<?> phoneNumberClass = Class.forName("com.twilio.type.PhoneNumber");
+        Class<?> messageClass = Class.forName("com.twilio.rest.api.v2010.account.Message");
+        Class<?> creatorClass = Class.forName("com.twilio.rest.api.v2010.account.MessageCreator");
+
+        lookup.findStatic(twilioClass, "init", MethodType.methodType(void.class, String.class, String.class))
+                .invoke(accountSid, authToken);
+        this.newPhoneNumber = lookup.findConstructor(phoneNumberClass, MethodType.methodType(void.class, String.class));
+        this.messageCreator = lookup.findStatic(messageClass, "creator",
+                MethodType.methodType(creatorClass, phoneNumberClass, phoneNumberClass, String.class));
+        // create() is declared on Twilio's generic Creator base class, so it returns the erased type
+        this.create = lookup.findVirtual(creatorClass, "create", MethodType.methodType(Object.class));
+        this.fromNumber = newPhoneNumber.invoke(fromNumber);
+    }
+
+    @Override
+    public void send(String to, String message) throws Exception {
+        try {
+            Object creator = messageCreator.invoke(newPhoneNumber.invoke(to), fromNumber, message);
+            create.invoke(creator);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "twilio";
+    }
+}
@@ -3,10 +3,13 @@ package com.farmtech.backend.service;
 import com.farmtech.backend.entity.User;
 import com.farmtech.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class UserService {
@@ -18,6 +21,18 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    public List<User> getUsersAfter(Long afterId, Pageable pageable) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageable);
+    }
+
+    public Map<String, Long> countUsersByRole() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : userRepository.countByRole()) {
+            counts.put(row[0] != null ? (String) row[0] : "UNKNOWN", (Long) row[1]);
+        }
+        return counts;
+    }
+
     public User saveUser(User user) {
         return userRepository.save(user);
     }
@@ -0,0 +1,14 @@
+-- Bookings and booking candidates switch from AUTO_INCREMENT to a pooled table generator
+-- (allocationSize 50) so candidate fan-out can be inserted with JDBC batching.
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'bookings', COALESCE(MAX(id), 0) + 51 FROM bookings
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'booking_candidates', COALESCE(MAX(id), 0) + 51 FROM booking_candidates
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
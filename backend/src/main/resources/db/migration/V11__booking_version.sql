@@ -0,0 +1,3 @@
+-- Optimistic locking for bookings; acceptance uses a conditional update on accepted_owner_id
+ALTER TABLE bookings
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+-- Invitation timeouts look up open (NOTIFIED) candidates by invitation time
+CREATE INDEX idx_candidates_status_invited ON booking_candidates (status, invited_at);
+
+ALTER TABLE booking_candidates
+    ADD COLUMN IF NOT EXISTS accepted_at DATETIME(6) NULL,
+    ADD COLUMN IF NOT EXISTS expired_at DATETIME(6) NULL;
@@ -0,0 +1,12 @@
+-- Incrementally maintained booking totals behind /api/analytics (filled by BookingRollupService)
+CREATE TABLE IF NOT EXISTS booking_rollups (
+    scope_type VARCHAR(10) NOT NULL,
+    scope_id BIGINT NOT NULL,
+    status VARCHAR(40) NOT NULL,
+    slot INT NOT NULL,
+    booking_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(15,2) NOT NULL DEFAULT 0,
+    confirm_minutes_sum BIGINT NOT NULL DEFAULT 0,
+    confirm_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (scope_type, scope_id, status, slot)
+);
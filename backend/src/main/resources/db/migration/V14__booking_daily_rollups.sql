@@ -0,0 +1,13 @@
+-- Booking totals per creation day behind /api/analytics/series (filled by BookingRollupService)
+CREATE TABLE IF NOT EXISTS booking_daily_rollups (
+    scope_type VARCHAR(10) NOT NULL,
+    scope_id BIGINT NOT NULL,
+    bucket_date DATE NOT NULL,
+    status VARCHAR(40) NOT NULL,
+    slot INT NOT NULL,
+    booking_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(15,2) NOT NULL DEFAULT 0,
+    confirm_minutes_sum BIGINT NOT NULL DEFAULT 0,
+    confirm_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (scope_type, scope_id, bucket_date, status, slot)
+);
@@ -0,0 +1,2 @@
+-- Owner request digests gather the pending entries of one recipient and type
+CREATE INDEX idx_outbox_recipient_type_status ON notification_outbox (recipient, type, status);
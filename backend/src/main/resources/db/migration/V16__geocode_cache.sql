@@ -0,0 +1,8 @@
+-- Geocoding results by normalized address; NULL coordinates record a lookup that found nothing
+CREATE TABLE IF NOT EXISTS geocode_cache (
+    address_key VARCHAR(255) NOT NULL PRIMARY KEY,
+    latitude DOUBLE NULL,
+    longitude DOUBLE NULL,
+    fetched_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+);
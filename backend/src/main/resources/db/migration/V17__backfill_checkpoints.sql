@@ -0,0 +1,12 @@
+-- Progress of resumable background jobs (e.g. the coordinate backfill), one row per job
+CREATE TABLE IF NOT EXISTS backfill_checkpoints (
+    job_name VARCHAR(100) NOT NULL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    processed_count BIGINT NOT NULL DEFAULT 0,
+    updated_count BIGINT NOT NULL DEFAULT 0,
+    unresolved_count BIGINT NOT NULL DEFAULT 0,
+    started_at DATETIME(6) NULL,
+    updated_at DATETIME(6) NULL,
+    finished_at DATETIME(6) NULL
+);
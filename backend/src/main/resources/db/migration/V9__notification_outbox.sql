@@ -0,0 +1,15 @@
+-- Transactional outbox for booking emails and SMS
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    payload TEXT,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    locked_until DATETIME(6) NULL,
+    sent_at DATETIME(6) NULL,
+    last_error VARCHAR(1000) NULL,
+    INDEX idx_outbox_status_next_attempt (status, next_attempt_at)
+);
@@ -0,0 +1,139 @@
+package com.farmtech.backend.repository;
+
+import com.farmtech.backend.entity.Booking;
+import com.farmtech.backend.entity.BookingCandidate;
+import com.farmtech.backend.entity.BookingCandidate.CandidateStatus;
+import com.farmtech.backend.entity.Equipment;
+import com.farmtech.backend.entity.Farmer;
+import com.farmtech.backend.service.BookingPushService;
+import com.farmtech.backend.service.BookingRollupService;
+import com.farmtech.backend.service.CandidateDispatchService;
+import com.farmtech.backend.service.CandidateSelectionService;
+import com.farmtech.backend.service.InvitationTimeoutScheduler;
+import com.farmtech.backend.service.LatencyStatsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creating a booking fans out one candidate row per nearby owner through
+ * {@link CandidateDispatchService#createCandidates}. With pooled ids and JDBC batching that costs a
+ * few dozen statements, not one (or three) per owner.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(CandidateDispatchService.class)
+class BookingCandidateBatchInsertTest {
+
+	private static final int OWNERS = 1000;
+
+	@Autowired
+	private FarmerRepository farmerRepository;
+
+	@Autowired
+	private EquipmentRepository equipmentRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private CandidateDispatchService candidateDispatchService;
+
+	@MockBean
+	private CandidateSelectionService candidateSelectionService;
+
+	@MockBean
+	private BookingPushService bookingPushService;
+
+	@MockBean
+	private InvitationTimeoutScheduler invitationTimeoutScheduler;
+
+	@MockBean
+	private BookingRollupService bookingRollupService;
+
+	@MockBean
+	private LatencyStatsService latencyStatsService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void bookingFanOutToThousandOwnersIsBatched() {
+		Farmer renter = farmerRepository.save(farmer("renter", 0));
+		List<Farmer> owners = new ArrayList<>(OWNERS);
+		for (int i = 1; i <= OWNERS; i++) {
+			owners.add(farmer("owner-" + i, i));
+		}
+		owners = farmerRepository.saveAll(owners);
+		Equipment equipment = equipmentRepository.save(equipment(owners.get(0)));
+		entityManager.flush();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		LocalDateTime now = LocalDateTime.now();
+		Booking booking = new Booking();
+		booking.setEquipment(equipment);
+		booking.setOwner(equipment.getOwner());
+		booking.setRenter(renter);
+		booking.setStatus("PENDING");
+		booking.setHours(4);
+		booking.setCreatedAt(now);
+		booking = bookingRepository.save(booking);
+
+		Map<Long, Double> distanceByOwner = new LinkedHashMap<>();
+		for (int i = 0; i < OWNERS; i++) {
+			distanceByOwner.put(owners.get(i).getId(), (double) i / 10);
+		}
+		List<BookingCandidate> candidates = candidateDispatchService.createCandidates(booking, distanceByOwner, now);
+		entityManager.flush();
+
+		assertThat(candidates).hasSize(OWNERS)
+				.allSatisfy(candidate -> assertThat(candidate.getStatus()).isEqualTo(CandidateStatus.NOTIFIED));
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(OWNERS + 1);
+		// 1 booking INSERT + 1 owner SELECT + 20 candidate batches of 50 + 2 statements per id block
+		// of 50 (~65 in all); unbatched inserts with per-row ids would need 1000 to 3000
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(OWNERS / 10);
+	}
+
+	private static Farmer farmer(String name, int n) {
+		Farmer farmer = new Farmer();
+		farmer.setName(name);
+		farmer.setEmail(name + "@example.com");
+		farmer.setPassword("secret");
+		farmer.setPhone(String.valueOf(9000000000L + n));
+		farmer.setLatitude(12.9 + n * 0.0001);
+		farmer.setLongitude(77.5 + n * 0.0001);
+		return farmer;
+	}
+
+	private static Equipment equipment(Farmer owner) {
+		Equipment equipment = new Equipment();
+		equipment.setName("Tractor");
+		equipment.setType("Tractor");
+		equipment.setPrice(1500);
+		equipment.setOwner(owner);
+		return equipment;
+	}
+}
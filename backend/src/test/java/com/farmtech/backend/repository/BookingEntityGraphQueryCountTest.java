@@ -0,0 +1,166 @@
+package com.farmtech.backend.repository;
+
+import com.farmtech.backend.entity.Booking;
+import com.farmtech.backend.entity.BookingCandidate;
+import com.farmtech.backend.entity.BookingCandidate.CandidateStatus;
+import com.farmtech.backend.entity.Equipment;
+import com.farmtech.backend.entity.Farmer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Booking and candidate list queries join every association the list endpoints serialize
+ * (Booking.details / BookingCandidate.details), so loading a page is one statement however many
+ * rows, owners and renters it holds.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookingEntityGraphQueryCountTest {
+
+	private static final int PAGE_SIZE = 50;
+	private static final int CANDIDATES_PER_BOOKING = 3;
+
+	@Autowired
+	private FarmerRepository farmerRepository;
+
+	@Autowired
+	private EquipmentRepository equipmentRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private BookingCandidateRepository candidateRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Farmer hubOwner;
+	private int farmers;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		// Invited to every booking, so their candidate list grows with the data
+		hubOwner = newFarmer();
+	}
+
+	@Test
+	void bookingPageStatementCountDoesNotGrowWithRows() {
+		seedBookings(5);
+		long small = statementsFor(() -> assertThat(loadBookingPage()).hasSize(5));
+
+		seedBookings(20);
+		long large = statementsFor(() -> assertThat(loadBookingPage()).hasSize(25));
+
+		assertThat(large).isEqualTo(small).isEqualTo(1);
+	}
+
+	@Test
+	void ownerCandidateListStatementCountDoesNotGrowWithRows() {
+		seedBookings(5);
+		long small = statementsFor(() -> assertThat(loadHubInvitations()).hasSize(5));
+
+		seedBookings(20);
+		long large = statementsFor(() -> assertThat(loadHubInvitations()).hasSize(25));
+
+		assertThat(large).isEqualTo(small).isEqualTo(1);
+	}
+
+	private long statementsFor(Runnable load) {
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+		load.run();
+		return statistics.getPrepareStatementCount();
+	}
+
+	// Touches what BookingController serializes for each row
+	private List<Booking> loadBookingPage() {
+		List<Booking> page = bookingRepository.findPageAfter(0L, PageRequest.of(0, PAGE_SIZE));
+		for (Booking booking : page) {
+			booking.getEquipment().getOwner().getName();
+			booking.getOwner().getName();
+			booking.getRenter().getName();
+		}
+		return page;
+	}
+
+	private List<BookingCandidate> loadHubInvitations() {
+		List<BookingCandidate> invitations = candidateRepository.findByOwnerIdOrderByInvitedAtDesc(hubOwner.getId());
+		for (BookingCandidate invitation : invitations) {
+			invitation.getOwner().getName();
+			invitation.getBooking().getEquipment().getOwner().getName();
+			invitation.getBooking().getRenter().getName();
+		}
+		return invitations;
+	}
+
+	// Every booking gets its own owner, renter and equipment so nothing is shared between rows
+	private void seedBookings(int count) {
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < count; i++) {
+			Farmer owner = newFarmer();
+			Equipment equipment = new Equipment();
+			equipment.setName("Tractor " + farmers);
+			equipment.setType("Tractor");
+			equipment.setPrice(1500);
+			equipment.setOwner(owner);
+			equipment = equipmentRepository.save(equipment);
+
+			Booking booking = new Booking();
+			booking.setEquipment(equipment);
+			booking.setOwner(owner);
+			booking.setRenter(newFarmer());
+			booking.setStatus("PENDING");
+			booking.setHours(4);
+			booking.setCreatedAt(now);
+			booking = bookingRepository.save(booking);
+
+			candidateRepository.save(candidate(booking, hubOwner, now));
+			for (int c = 1; c < CANDIDATES_PER_BOOKING; c++) {
+				candidateRepository.save(candidate(booking, newFarmer(), now));
+			}
+		}
+	}
+
+	private Farmer newFarmer() {
+		int n = ++farmers;
+		Farmer farmer = new Farmer();
+		farmer.setName("farmer-" + n);
+		farmer.setEmail("farmer-" + n + "@example.com");
+		farmer.setPassword("secret");
+		farmer.setPhone(String.valueOf(9000000000L + n));
+		return farmerRepository.save(farmer);
+	}
+
+	private static BookingCandidate candidate(Booking booking, Farmer owner, LocalDateTime invitedAt) {
+		BookingCandidate candidate = new BookingCandidate();
+		candidate.setBooking(booking);
+		candidate.setOwner(owner);
+		candidate.setDistanceKm(1.0);
+		candidate.setStatus(CandidateStatus.NOTIFIED);
+		candidate.setInvitedAt(invitedAt);
+		return candidate;
+	}
+}
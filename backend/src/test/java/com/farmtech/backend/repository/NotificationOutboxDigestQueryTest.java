@@ -0,0 +1,74 @@
+package com.farmtech.backend.repository;
+
+import com.farmtech.backend.entity.NotificationOutbox;
+import com.farmtech.backend.entity.NotificationOutbox.NotificationType;
+import com.farmtech.backend.entity.NotificationOutbox.OutboxStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A booking-request digest only takes never-attempted, unleased entries; failed ones wait out their
+ * back-off and are retried through findDue.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false"
+})
+class NotificationOutboxDigestQueryTest {
+
+	private static final String OWNER = "owner@example.com";
+	private static final NotificationType REQUEST = NotificationType.BOOKING_REQUEST_TO_OWNER;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void digestSkipsLeasedAndRetryingEntries() {
+		LocalDateTime now = LocalDateTime.now();
+		NotificationOutbox fresh = outboxRepository.save(entry(0, now.plusSeconds(60), null));
+		NotificationOutbox freshDue = outboxRepository.save(entry(0, now.minusSeconds(1), null));
+		outboxRepository.save(entry(0, now.minusSeconds(1), now.plusSeconds(120)));   // leased, in flight
+		NotificationOutbox retrying = outboxRepository.save(entry(1, now.plusSeconds(300), null)); // backing off
+		entityManager.flush();
+
+		List<NotificationOutbox> digest = outboxRepository.findUnleasedForRecipient(OWNER, REQUEST, OutboxStatus.PENDING,
+				now, PageRequest.of(0, 10));
+
+		assertThat(digest).extracting(NotificationOutbox::getId).containsExactly(fresh.getId(), freshDue.getId());
+		assertThat(outboxRepository.countDigestable(OWNER, REQUEST, OutboxStatus.PENDING, now)).isEqualTo(2);
+
+		// Ending the digest window early must not pull the retry forward
+		assertThat(outboxRepository.makeDue(OWNER, REQUEST, OutboxStatus.PENDING, now)).isEqualTo(1);
+		entityManager.clear();
+		assertThat(outboxRepository.findById(retrying.getId()).orElseThrow().getNextAttemptAt()).isAfter(now);
+		assertThat(outboxRepository.findDue(OutboxStatus.PENDING, now, PageRequest.of(0, 10)))
+				.extracting(NotificationOutbox::getId).doesNotContain(retrying.getId());
+		assertThat(outboxRepository.findDue(OutboxStatus.PENDING, now.plusSeconds(301), PageRequest.of(0, 10)))
+				.extracting(NotificationOutbox::getId).contains(retrying.getId());
+	}
+
+	private static NotificationOutbox entry(int attempts, LocalDateTime nextAttemptAt, LocalDateTime lockedUntil) {
+		NotificationOutbox entry = new NotificationOutbox();
+		entry.setType(REQUEST);
+		entry.setRecipient(OWNER);
+		entry.setPayload("{}");
+		entry.setStatus(OutboxStatus.PENDING);
+		entry.setAttempts(attempts);
+		entry.setCreatedAt(nextAttemptAt.minusMinutes(5));
+		entry.setNextAttemptAt(nextAttemptAt);
+		entry.setLockedUntil(lockedUntil);
+		return entry;
+	}
+}
@@ -0,0 +1,125 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.Farmer;
+import com.farmtech.backend.repository.BookingCandidateRepository;
+import com.farmtech.backend.repository.BookingRepository;
+import com.farmtech.backend.repository.FarmerRepository;
+import com.farmtech.backend.service.BookingRollupService.Snapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * confirmForOwner reads the booking without a lock and confirms it with an UPDATE that re-checks the
+ * status it read. These cases change the row between that read and the UPDATE.
+ */
+@ExtendWith(MockitoExtension.class)
+class CandidateDispatchServiceTest {
+
+	private static final Long BOOKING_ID = 42L;
+	private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 6, 1, 9, 0);
+	private static final LocalDateTime NOW = CREATED_AT.plusMinutes(20);
+
+	@Mock
+	private BookingCandidateRepository candidateRepository;
+
+	@Mock
+	private BookingRepository bookingRepository;
+
+	@Mock
+	private BookingPushService bookingPushService;
+
+	@Mock
+	private InvitationTimeoutScheduler invitationTimeoutScheduler;
+
+	@Mock
+	private BookingRollupService bookingRollupService;
+
+	@Mock
+	private LatencyStatsService latencyStatsService;
+
+	@Mock
+	private CandidateSelectionService candidateSelectionService;
+
+	@Mock
+	private FarmerRepository farmerRepository;
+
+	private CandidateDispatchService service;
+	private Farmer owner;
+
+	@BeforeEach
+	void setUp() {
+		service = new CandidateDispatchService(candidateRepository, bookingRepository, bookingPushService,
+				invitationTimeoutScheduler, bookingRollupService, latencyStatsService, candidateSelectionService, farmerRepository);
+		owner = new Farmer();
+		owner.setId(7L);
+	}
+
+	@Test
+	void confirmsWhenOnlyTheStatusChangedAfterTheRead() {
+		Snapshot awaiting = snapshot("AWAITING_OWNER", null);
+		// The invitation timeout sweep moved the booking on before our UPDATE ran
+		Snapshot timedOut = snapshot("PENDING_NO_CANDIDATES", null);
+		when(bookingRollupService.readSnapshot(BOOKING_ID)).thenReturn(Optional.of(awaiting));
+		when(bookingRepository.confirmIfUnaccepted(BOOKING_ID, owner, "AWAITING_OWNER", NOW)).thenReturn(0);
+		when(bookingRollupService.lockSnapshot(BOOKING_ID)).thenReturn(Optional.of(timedOut));
+		when(bookingRepository.confirmIfUnaccepted(BOOKING_ID, owner, "PENDING_NO_CANDIDATES", NOW)).thenReturn(1);
+
+		assertThat(service.confirmForOwner(BOOKING_ID, owner, NOW)).isTrue();
+
+		// The rollups move from the status the UPDATE actually replaced
+		verify(bookingRollupService).recordTransition(timedOut, timedOut.confirmedBy(owner.getId(), NOW));
+		verify(latencyStatsService).recordConfirmation(CREATED_AT, NOW);
+	}
+
+	@Test
+	void reportsConflictWhenAnotherOwnerAcceptedAfterTheRead() {
+		when(bookingRollupService.readSnapshot(BOOKING_ID)).thenReturn(Optional.of(snapshot("AWAITING_OWNER", null)));
+		when(bookingRepository.confirmIfUnaccepted(BOOKING_ID, owner, "AWAITING_OWNER", NOW)).thenReturn(0);
+		when(bookingRollupService.lockSnapshot(BOOKING_ID)).thenReturn(Optional.of(snapshot("CONFIRMED", 9L)));
+
+		assertThat(service.confirmForOwner(BOOKING_ID, owner, NOW)).isFalse();
+
+		verify(bookingRepository, times(1)).confirmIfUnaccepted(any(), any(), any(), any());
+		verify(bookingRollupService, never()).recordTransition(any(), any());
+	}
+
+	@Test
+	void givesUpAfterBoundedRetries() {
+		when(bookingRollupService.readSnapshot(BOOKING_ID)).thenReturn(Optional.of(snapshot("AWAITING_OWNER", null)));
+		when(bookingRollupService.lockSnapshot(BOOKING_ID)).thenReturn(Optional.of(snapshot("AWAITING_OWNER", null)));
+		when(bookingRepository.confirmIfUnaccepted(eq(BOOKING_ID), eq(owner), anyString(), eq(NOW))).thenReturn(0);
+
+		assertThat(service.confirmForOwner(BOOKING_ID, owner, NOW)).isFalse();
+
+		verify(bookingRepository, times(3)).confirmIfUnaccepted(eq(BOOKING_ID), eq(owner), anyString(), eq(NOW));
+		verify(bookingRollupService, never()).recordTransition(any(), any());
+	}
+
+	@Test
+	void doesNotTouchAnAlreadyAcceptedBooking() {
+		when(bookingRollupService.readSnapshot(BOOKING_ID)).thenReturn(Optional.of(snapshot("CONFIRMED", 9L)));
+
+		assertThat(service.confirmForOwner(BOOKING_ID, owner, NOW)).isFalse();
+
+		verify(bookingRepository, never()).confirmIfUnaccepted(any(), any(), any(), any());
+	}
+
+	private static Snapshot snapshot(String status, Long acceptedOwnerId) {
+		return new Snapshot(BOOKING_ID, status, 3L, acceptedOwnerId, 1200.0, CREATED_AT, null);
+	}
+}
@@ -0,0 +1,134 @@
+package com.farmtech.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The batch methods against the scalar {@link DistanceService#distanceInKm} over random points,
+ * including the poles and the +/-180 degree line where the equirectangular prefilter is weakest.
+ */
+class DistanceServiceTest {
+
+	private static final int ORIGINS = 200;
+	private static final int POINTS = 1000;
+	// The batch haversine uses asin instead of atan2; both agree far closer than this
+	private static final double TOLERANCE_KM = 1e-6;
+
+	private final DistanceService distanceService = new DistanceService();
+
+	@Test
+	void distancesInKmMatchesScalarDistance() {
+		SplittableRandom random = new SplittableRandom(1);
+		Points points = new Points(POINTS);
+		double[] distances = new double[POINTS];
+		for (int o = 0; o < ORIGINS; o++) {
+			double originLat = random.nextDouble(-90, 90);
+			double originLon = random.nextDouble(-180, 180);
+			points.fill(random, originLat, originLon, 5000);
+
+			distanceService.distancesInKm(originLat, originLon, points.lat, points.lon, points.cosLat, POINTS, distances);
+
+			for (int i = 0; i < POINTS; i++) {
+				assertThat(distances[i])
+						.isCloseTo(distanceService.distanceInKm(originLat, originLon, points.lat[i], points.lon[i]), within(TOLERANCE_KM));
+			}
+		}
+	}
+
+	@ParameterizedTest(name = "origins within +/-{0} deg, radius {1} km")
+	@CsvSource({
+			"30, 50",
+			"70, 200",
+			"70, 1000",
+			"85, 50",
+			"89.9, 200",
+			"80, 3000"
+	})
+	void withinRadiusMatchesBruteForce(double maxOriginLatitude, double radiusKm) {
+		SplittableRandom random = new SplittableRandom(Double.hashCode(maxOriginLatitude) * 31 + (int) radiusKm);
+		Points points = new Points(POINTS);
+		int[] indexes = new int[POINTS];
+		double[] distances = new double[POINTS];
+		int matches = 0;
+		for (int o = 0; o < ORIGINS; o++) {
+			double originLat = random.nextDouble(-maxOriginLatitude, maxOriginLatitude);
+			double originLon = random.nextDouble(-180, 180);
+			points.fill(random, originLat, originLon, radiusKm * 1.5);
+
+			int found = distanceService.withinRadius(originLat, originLon, radiusKm,
+					points.lat, points.lon, points.cosLat, POINTS, indexes, distances);
+
+			Map<Integer, Double> reported = new HashMap<>();
+			for (int k = 0; k < found; k++) {
+				reported.put(indexes[k], distances[k]);
+				assertThat(k == 0 || indexes[k] > indexes[k - 1]).as("input order").isTrue();
+			}
+			for (int i = 0; i < POINTS; i++) {
+				double exact = distanceService.distanceInKm(originLat, originLon, points.lat[i], points.lon[i]);
+				if (exact <= radiusKm - TOLERANCE_KM) {
+					assertThat(reported).as("point at %.4f km from (%.4f, %.4f)", exact, originLat, originLon).containsKey(i);
+					assertThat(reported.get(i)).isCloseTo(exact, within(TOLERANCE_KM));
+				} else if (exact > radiusKm + TOLERANCE_KM) {
+					assertThat(reported).doesNotContainKey(i);
+				}
+			}
+			matches += found;
+		}
+		assertThat(matches).as("the sample actually has points in range").isGreaterThan(ORIGINS);
+	}
+
+	@Test
+	void withinRadiusFindsPointsAcrossTheAntimeridian() {
+		double[] lat = {-16.5, -16.6, -16.5, -17.5};
+		double[] lon = {-179.9, 179.8, 178.0, -179.95};
+		double[] cosLat = new double[lat.length];
+		for (int i = 0; i < lat.length; i++) {
+			cosLat[i] = DistanceService.cosLatitude(lat[i]);
+		}
+		int[] indexes = new int[lat.length];
+		double[] distances = new double[lat.length];
+
+		int found = distanceService.withinRadius(-16.5, 179.95, 50, lat, lon, cosLat, lat.length, indexes, distances);
+
+		// 0.15 deg and 0.2 deg of longitude away across the line; 178.0 is ~208 km and -17.5 is ~111 km off
+		assertThat(found).isEqualTo(2);
+		assertThat(indexes[0]).isZero();
+		assertThat(indexes[1]).isEqualTo(1);
+		assertThat(distances[0]).isCloseTo(distanceService.distanceInKm(-16.5, 179.95, -16.5, -179.9), within(TOLERANCE_KM));
+	}
+
+	/**
+	 * Points scattered around an origin (about half of them within {@code spreadKm}), with latitudes
+	 * clamped to the poles and longitudes wrapped into [-180, 180).
+	 */
+	private static final class Points {
+		final double[] lat;
+		final double[] lon;
+		final double[] cosLat;
+
+		Points(int size) {
+			lat = new double[size];
+			lon = new double[size];
+			cosLat = new double[size];
+		}
+
+		void fill(SplittableRandom random, double originLat, double originLon, double spreadKm) {
+			double spreadDeg = spreadKm / 111.2;
+			double lonScale = Math.max(0.02, Math.cos(Math.toRadians(originLat)));
+			for (int i = 0; i < lat.length; i++) {
+				lat[i] = Math.max(-90, Math.min(90, originLat + random.nextDouble(-spreadDeg, spreadDeg)));
+				double longitude = originLon + random.nextDouble(-spreadDeg, spreadDeg) / lonScale;
+				lon[i] = ((longitude + 180) % 360 + 360) % 360 - 180;
+				cosLat[i] = DistanceService.cosLatitude(lat[i]);
+			}
+		}
+	}
+}
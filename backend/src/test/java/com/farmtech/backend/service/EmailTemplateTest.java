@@ -0,0 +1,90 @@
+package com.farmtech.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The booking emails used to be built with String.format over inline format strings; those strings
+ * are kept under {@code email-legacy/} so the templates can be compared with the old output.
+ * Plain values render exactly as before. Values are now HTML-escaped, so names containing
+ * {@code & < > " '} render differently (escaped) than they used to.
+ */
+class EmailTemplateTest {
+
+	private static final String SPECIAL = "Ravi & Sons <b>\"Big\"</b> O'Neil";
+	private static final String SPECIAL_ESCAPED = "Ravi &amp; Sons &lt;b&gt;&quot;Big&quot;&lt;/b&gt; O&#39;Neil";
+
+	private final EmailTemplate bookingConfirmation =
+			EmailTemplate.load("booking-confirmation", "bookingId", "equipmentName", "startDate", "hours");
+	private final EmailTemplate bookingAcceptedBooker =
+			EmailTemplate.load("booking-accepted-booker", "ownerName", "ownerPhone", "equipmentName", "bookingId");
+	private final EmailTemplate bookingAcceptedOwner =
+			EmailTemplate.load("booking-accepted-owner",
+					"bookerName", "bookerPhone", "bookerEmail", "equipmentName", "startDate", "hours", "location");
+	private final EmailTemplate bookingRequestOwner =
+			EmailTemplate.load("booking-request-owner",
+					"bookingId", "bookerName", "bookerPhone", "bookerEmail", "equipmentName", "startDate", "hours", "location");
+
+	@Test
+	void bookingConfirmationMatchesLegacyFormat() {
+		assertThat(bookingConfirmation.render(1234L, "Mahindra 575 Tractor", "2024-06-01", 6))
+				.isEqualTo(legacy("booking-confirmation", 1234L, "Mahindra 575 Tractor", "2024-06-01", 6));
+		assertThat(bookingConfirmation.render(1234L, "Tractor", "2024-06-01", "N/A"))
+				.isEqualTo(legacy("booking-confirmation", 1234L, "Tractor", "2024-06-01", "N/A"));
+	}
+
+	@Test
+	void bookingAcceptedBookerMatchesLegacyFormat() {
+		assertThat(bookingAcceptedBooker.render("Suresh Patil", "9876543210", "Rotavator", 77L))
+				.isEqualTo(legacy("booking-accepted-booker", "Suresh Patil", "9876543210", "Rotavator", 77L));
+	}
+
+	@Test
+	void bookingAcceptedOwnerMatchesLegacyFormat() {
+		// The old format string took hours twice (banner and details); the template reuses one slot
+		assertThat(bookingAcceptedOwner.render("Anita Rao", "9123456780", "anita@example.com",
+				"Harvester", "2024-06-02", 8, "Hubli, Karnataka"))
+				.isEqualTo(legacy("booking-accepted-owner", 8, "Anita Rao", "9123456780", "anita@example.com",
+						"Harvester", "2024-06-02", 8, "Hubli, Karnataka"));
+	}
+
+	@Test
+	void bookingRequestOwnerMatchesLegacyFormat() {
+		assertThat(bookingRequestOwner.render(88L, "Anita Rao", "9123456780", "anita@example.com",
+				"Harvester", "2024-06-02", "N/A", "To be confirmed"))
+				.isEqualTo(legacy("booking-request-owner", 88L, "Anita Rao", "9123456780", "anita@example.com",
+						"Harvester", "2024-06-02", "N/A", "To be confirmed"));
+	}
+
+	@Test
+	void specialCharactersAreEscapedWhereTheLegacyFormatInsertedThemRaw() {
+		String rendered = bookingAcceptedBooker.render(SPECIAL, "9876543210", SPECIAL, 77L);
+
+		assertThat(rendered)
+				.isEqualTo(legacy("booking-accepted-booker", SPECIAL_ESCAPED, "9876543210", SPECIAL_ESCAPED, 77L))
+				.isNotEqualTo(legacy("booking-accepted-booker", SPECIAL, "9876543210", SPECIAL, 77L))
+				.doesNotContain(SPECIAL);
+	}
+
+	@Test
+	void markupIsInsertedWithoutEscaping() {
+		EmailTemplate template = EmailTemplate.parse("inline", "<ul>{{rows}}</ul><p>{{name}}</p>", "rows", "name");
+
+		assertThat(template.render(new EmailTemplate.Markup("<li>a & b</li>"), "a & b"))
+				.isEqualTo("<ul><li>a & b</li></ul><p>a &amp; b</p>");
+	}
+
+	private static String legacy(String name, Object... args) {
+		try (InputStream in = EmailTemplateTest.class.getResourceAsStream("/email-legacy/" + name + ".txt")) {
+			assertThat(in).as("legacy format " + name).isNotNull();
+			return String.format(new String(in.readAllBytes(), StandardCharsets.UTF_8), args);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package com.farmtech.backend.service;
+
+import com.farmtech.backend.entity.GeocodeCacheEntry;
+import com.farmtech.backend.repository.GeocodeCacheRepository;
+import com.farmtech.backend.service.GeocodingService.Coordinates;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * geocodePrecise against a stub Geocoding API on localhost (via {@code geocoding.base-url}), with the
+ * geocode_cache table kept in a map.
+ */
+@ExtendWith(MockitoExtension.class)
+class GeocodingServiceTest {
+
+	private static final String ADDRESS = "12, MG Road, Mandya";
+	private static final String NOWHERE = "Nowhere, Atlantis";
+	private static final long NEGATIVE_TTL_MINUTES = 60;
+	private static final String FOUND = "{\"status\":\"OK\",\"results\":[{\"geometry\":{\"location\":{\"lat\":12.5218,\"lng\":76.8951}}}]}";
+	private static final String NOT_FOUND = "{\"status\":\"ZERO_RESULTS\",\"results\":[]}";
+
+	@Mock
+	private GeocodeCacheRepository cacheRepository;
+
+	@Mock
+	private Gazetteer gazetteer;
+
+	private final Map<String, GeocodeCacheEntry> table = new ConcurrentHashMap<>();
+	private final AtomicInteger upstreamRequests = new AtomicInteger();
+	private final CountDownLatch releaseResponses = new CountDownLatch(1);
+	private final MutableClock clock = new MutableClock(Instant.parse("2024-06-01T09:00:00Z"));
+	private HttpServer server;
+	private GeocodingService geocodingService;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/geocode/json", this::respond);
+		server.start();
+
+		lenient().when(cacheRepository.findById(anyString())).thenAnswer(call -> Optional.ofNullable(table.get(call.<String>getArgument(0))));
+		lenient().when(cacheRepository.save(any(GeocodeCacheEntry.class))).thenAnswer(call -> {
+			GeocodeCacheEntry entry = call.getArgument(0);
+			table.put(entry.getAddressKey(), entry);
+			return entry;
+		});
+
+		String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/geocode/json";
+		geocodingService = new GeocodingService(cacheRepository, gazetteer, new RestTemplateBuilder(), "test-key", baseUrl,
+				2000, 5000, 100, 30, NEGATIVE_TTL_MINUTES, clock);
+	}
+
+	@AfterEach
+	void tearDown() {
+		releaseResponses.countDown();
+		server.stop(0);
+	}
+
+	@Test
+	void concurrentLookupsOfOneAddressShareOneUpstreamCall() throws Exception {
+		int callers = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<Optional<Coordinates>>> results = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				// Differently spaced spellings of the same address share a cache key
+				String spelling = i % 2 == 0 ? ADDRESS : "  12 ,mg road,  MANDYA ";
+				results.add(executor.submit(() -> geocodingService.geocodePrecise(spelling)));
+			}
+
+			// The stub holds its answer until every other caller is waiting on the first one's lookup
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (geocodingService.getStats().coalescedLookups() < callers - 1 && System.nanoTime() < deadline) {
+				Thread.sleep(5);
+			}
+			assertThat(geocodingService.getStats().coalescedLookups()).isEqualTo(callers - 1);
+			releaseResponses.countDown();
+
+			for (Future<Optional<Coordinates>> result : results) {
+				assertThat(result.get(10, TimeUnit.SECONDS)).contains(new Coordinates(12.5218, 76.8951));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(upstreamRequests).hasValue(1);
+		assertThat(geocodingService.getStats().upstreamCalls()).isEqualTo(1);
+		// Later lookups are served from memory
+		assertThat(geocodingService.geocodePrecise(ADDRESS)).isPresent();
+		assertThat(upstreamRequests).hasValue(1);
+	}
+
+	@Test
+	void zeroResultsIsCachedForTheNegativeTtlOnly() {
+		releaseResponses.countDown();
+
+		assertThat(geocodingService.geocodePrecise(NOWHERE)).isEmpty();
+		assertThat(upstreamRequests).hasValue(1);
+
+		clock.advance(Duration.ofMinutes(NEGATIVE_TTL_MINUTES - 1));
+		assertThat(geocodingService.geocodePrecise(NOWHERE)).isEmpty();
+		assertThat(upstreamRequests).as("still cached").hasValue(1);
+
+		clock.advance(Duration.ofMinutes(2));
+		assertThat(geocodingService.geocodePrecise(NOWHERE)).isEmpty();
+		assertThat(upstreamRequests).as("asked again once the negative entry expired").hasValue(2);
+
+		// A found address would still be cached at this point (ttl-days, not minutes)
+		assertThat(geocodingService.geocodePrecise(ADDRESS)).isPresent();
+		clock.advance(Duration.ofMinutes(NEGATIVE_TTL_MINUTES + 1));
+		assertThat(geocodingService.geocodePrecise(ADDRESS)).isPresent();
+		assertThat(upstreamRequests).hasValue(3);
+	}
+
+	private void respond(HttpExchange exchange) throws IOException {
+		upstreamRequests.incrementAndGet();
+		try {
+			releaseResponses.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		String query = exchange.getRequestURI().getQuery();
+		byte[] body = (query != null && query.contains("Atlantis") ? NOT_FOUND : FOUND).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static final class MutableClock extends Clock {
+		private volatile Instant now;
+
+		MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
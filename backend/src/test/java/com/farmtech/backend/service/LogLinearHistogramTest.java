@@ -0,0 +1,131 @@
+package com.farmtech.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * valueAtQuantile against the exact quantile of the recorded values (the value at rank
+ * ceil(q * n) of the sorted sample), which it must report within the precision of its layout.
+ */
+class LogLinearHistogramTest {
+
+	private static final double[] QUANTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1.0};
+	private static final int SAMPLES = 100_000;
+	private static final long MAX_VALUE = 60L * 60 * 1000;
+
+	@ParameterizedTest(name = "subBucketBits {0}")
+	@ValueSource(ints = {2, 5, 7})
+	void uniformDistribution(int subBucketBits) {
+		SplittableRandom random = new SplittableRandom(subBucketBits);
+		long[] values = new long[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			values[i] = random.nextLong(0, 100_000);
+		}
+		assertQuantiles(subBucketBits, values);
+	}
+
+	@ParameterizedTest(name = "subBucketBits {0}")
+	@ValueSource(ints = {2, 5, 7})
+	void exponentialDistribution(int subBucketBits) {
+		SplittableRandom random = new SplittableRandom(31L * subBucketBits);
+		long[] values = new long[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			// Mean 2 s, like confirmation latencies: most values small, a long tail
+			values[i] = (long) (-2000 * Math.log(1 - random.nextDouble()));
+		}
+		assertQuantiles(subBucketBits, values);
+	}
+
+	@Test
+	void smallValuesAreExact() {
+		LogLinearHistogram histogram = new LogLinearHistogram(5, MAX_VALUE);
+		for (long v = 1; v <= 10; v++) {
+			histogram.record(v);
+		}
+
+		assertThat(histogram.valueAtQuantile(0.0)).isEqualTo(1);
+		assertThat(histogram.valueAtQuantile(0.5)).isEqualTo(5);
+		assertThat(histogram.valueAtQuantile(0.9)).isEqualTo(9);
+		assertThat(histogram.valueAtQuantile(1.0)).isEqualTo(10);
+	}
+
+	@Test
+	void valuesAboveMaxValueLandInTheLastBucket() {
+		LogLinearHistogram histogram = new LogLinearHistogram(5, MAX_VALUE);
+		for (int i = 0; i < 900; i++) {
+			histogram.record(1000);
+		}
+		for (int i = 0; i < 100; i++) {
+			histogram.record(MAX_VALUE * 10 + i);
+		}
+		histogram.record(-5);
+
+		assertThat(histogram.count()).isEqualTo(1001);
+		assertThat(histogram.max()).isEqualTo(MAX_VALUE);
+		// The overflow does not move the quantiles below it
+		assertThat(histogram.valueAtQuantile(0.5)).isCloseTo(1000, within(1000L / 16));
+		assertThat(histogram.valueAtQuantile(0.89)).isCloseTo(1000, within(1000L / 16));
+		// and the ones inside it report maxValue, never more
+		assertThat(histogram.valueAtQuantile(0.95)).isBetween(MAX_VALUE - MAX_VALUE / 16, MAX_VALUE);
+		assertThat(histogram.valueAtQuantile(1.0)).isEqualTo(MAX_VALUE);
+		// the negative sample is recorded as 0
+		assertThat(histogram.valueAtQuantile(0.0)).isZero();
+	}
+
+	@Test
+	void emptyHistogramReportsZero() {
+		LogLinearHistogram histogram = new LogLinearHistogram(5, MAX_VALUE);
+
+		assertThat(histogram.valueAtQuantile(0.5)).isZero();
+		assertThat(histogram.valueAtQuantile(1.0)).isZero();
+	}
+
+	@Test
+	void mergedHistogramMatchesOneThatRecordedEverything() {
+		SplittableRandom random = new SplittableRandom(7);
+		LogLinearHistogram all = new LogLinearHistogram(5, MAX_VALUE);
+		LogLinearHistogram first = new LogLinearHistogram(5, MAX_VALUE);
+		LogLinearHistogram second = new LogLinearHistogram(5, MAX_VALUE);
+		for (int i = 0; i < 10_000; i++) {
+			long value = random.nextLong(0, 50_000);
+			all.record(value);
+			(i % 3 == 0 ? first : second).record(value);
+		}
+
+		first.merge(second);
+
+		assertThat(first.count()).isEqualTo(all.count());
+		assertThat(first.max()).isEqualTo(all.max());
+		for (double quantile : QUANTILES) {
+			assertThat(first.valueAtQuantile(quantile)).as("q=%s", quantile).isEqualTo(all.valueAtQuantile(quantile));
+		}
+	}
+
+	private static void assertQuantiles(int subBucketBits, long[] values) {
+		LogLinearHistogram histogram = new LogLinearHistogram(subBucketBits, MAX_VALUE);
+		for (long value : values) {
+			histogram.record(value);
+		}
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+
+		assertThat(histogram.count()).isEqualTo(values.length);
+		assertThat(histogram.max()).isEqualTo(sorted[sorted.length - 1]);
+		for (double quantile : QUANTILES) {
+			long rank = Math.max(1, (long) Math.ceil(quantile * sorted.length));
+			long exact = sorted[(int) rank - 1];
+			// A bucket spans at most exact / 2^(subBucketBits-1), and the midpoint is half of that away
+			long tolerance = exact >> subBucketBits;
+			assertThat(histogram.valueAtQuantile(quantile))
+					.as("q=%s with subBucketBits %d", quantile, subBucketBits)
+					.isCloseTo(exact, within(tolerance));
+		}
+	}
+}
@@ -0,0 +1,32 @@
+import api from "./axiosInstance";
+
+const EVENT_TYPES = ["INVITATION", "ACCEPTED", "EXPIRED"];
+
+// Opens the server-sent booking event stream for a farmer/user id.
+// onOpen fires when the server confirms the stream, onError when it drops (EventSource keeps retrying).
+// Returns an unsubscribe function; returns a no-op when the browser has no EventSource.
+export function subscribeToBookingEvents(userId, { onEvent, onOpen, onError } = {}) {
+  if (!userId || typeof window === "undefined" || !window.EventSource) {
+    onError && onError();
+    return () => {};
+  }
+
+  const url = `${api.defaults.baseURL}/bookings/stream?userId=${encodeURIComponent(userId)}`;
+  const source = new EventSource(url);
+
+  source.addEventListener("CONNECTED", () => onOpen && onOpen());
+  EVENT_TYPES.forEach((type) => {
+    source.addEventListener(type, (e) => {
+      let data = null;
+      try {
+        data = JSON.parse(e.data);
+      } catch (err) {
+        console.error("Invalid booking event:", e.data);
+      }
+      onEvent && onEvent(data);
+    });
+  });
+  source.onerror = () => onError && onError();
+
+  return () => source.close();
+}
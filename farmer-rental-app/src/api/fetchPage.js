@@ -0,0 +1,16 @@
+import api from "./axiosInstance";
+
+export const DEFAULT_PAGE_SIZE = 50;
+
+// Fetches one page of a keyset-paged list endpoint such as /bookings, /equipments or /users.
+// nextCursor is the X-Next-Cursor header (null on the last page); pass it back as afterId
+// to get the page after this one.
+export async function fetchPage(path, { afterId, limit = DEFAULT_PAGE_SIZE, params = {} } = {}) {
+  const response = await api.get(path, { params: { ...params, limit, afterId } });
+  return {
+    data: response.data || [],
+    nextCursor: response.headers?.["x-next-cursor"] || null,
+  };
+}
+
+export default fetchPage;
@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from "react";
 import api from "../api/axiosInstance";
+import { subscribeToBookingEvents } from "../api/bookingEvents";
 
 const NotificationSystem = () => {
   const [notifications, setNotifications] = useState([]);
@@ -59,10 +60,33 @@ const NotificationSystem = () => {
     };
 
     fetchNotifications();
-    
-    // Refresh notifications every 30 seconds
-    const interval = setInterval(fetchNotifications, 30000);
-    return () => clearInterval(interval);
+
+    // Refetch when the server pushes a booking event; poll every 30 seconds only while the stream is down
+    let interval = null;
+    const startPolling = () => {
+      if (!interval) interval = setInterval(fetchNotifications, 30000);
+    };
+    const stopPolling = () => {
+      if (interval) {
+        clearInterval(interval);
+        interval = null;
+      }
+    };
+
+    startPolling();
+    const unsubscribe = subscribeToBookingEvents(farmerId, {
+      onEvent: fetchNotifications,
+      onOpen: () => {
+        stopPolling();
+        fetchNotifications(); // catch up on anything missed while disconnected
+      },
+      onError: startPolling,
+    });
+
+    return () => {
+      stopPolling();
+      unsubscribe();
+    };
   }, []);
 
   const markAsRead = (notificationId) => {
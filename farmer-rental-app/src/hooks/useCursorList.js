@@ -0,0 +1,37 @@
+import { useCallback, useRef, useState } from "react";
+import { fetchPage, DEFAULT_PAGE_SIZE } from "../api/fetchPage";
+
+// Rows of a keyset-paged list endpoint, one page at a time.
+// reload() replaces the rows with the first page, loadMore() appends the next one;
+// hasMore is false once the server stops sending X-Next-Cursor.
+export function useCursorList(path, { limit = DEFAULT_PAGE_SIZE, params } = {}) {
+  const [rows, setRows] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loading, setLoading] = useState(false);
+  // Drops responses from a reload that was superseded by a newer one
+  const requestSeq = useRef(0);
+
+  const load = useCallback(async (afterId, append) => {
+    const seq = ++requestSeq.current;
+    setLoading(true);
+    try {
+      const page = await fetchPage(path, { afterId, limit, params });
+      if (seq !== requestSeq.current) return;
+      setRows((previous) => (append ? [...previous, ...page.data] : page.data));
+      setNextCursor(page.nextCursor);
+    } finally {
+      if (seq === requestSeq.current) setLoading(false);
+    }
+  }, [path, limit, params]);
+
+  const reload = useCallback(() => load(undefined, false), [load]);
+
+  const loadMore = useCallback(() => {
+    if (!nextCursor || loading) return Promise.resolve();
+    return load(nextCursor, true);
+  }, [load, nextCursor, loading]);
+
+  return { rows, setRows, reload, loadMore, hasMore: Boolean(nextCursor), loading };
+}
+
+export default useCursorList;
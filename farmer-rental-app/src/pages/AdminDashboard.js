@@ -1,6 +1,7 @@
 import React, { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
 import api from "../api/axiosInstance";
+import { useCursorList } from "../hooks/useCursorList";
 import NotificationSystem from "../components/NotificationSystem";
 import { 
   PieChart, Pie, Cell, Tooltip, Legend, ResponsiveContainer,
@@ -10,9 +11,16 @@ import {
 const AdminDashboard = () => {
   const navigate = useNavigate( );
   const [activeTab, setActiveTab] = useState("overview");
-  const [users, setUsers] = useState([]);
-  const [equipment, setEquipment] = useState([]);
-  const [bookings, setBookings] = useState([]);
+  // Tables show one keyset page at a time; "Load more" fetches the next
+  const userList = useCursorList("/users");
+  const equipmentList = useCursorList("/equipments");
+  const bookingList = useCursorList("/bookings");
+  const { rows: users, setRows: setUsers } = userList;
+  const { rows: equipment, setRows: setEquipment } = equipmentList;
+  const { rows: bookings, setRows: setBookings } = bookingList;
+  // Overview totals come from count/rollup endpoints, not from the loaded pages
+  const [roleCounts, setRoleCounts] = useState({});
+  const [bookingTotals, setBookingTotals] = useState(null);
   const [loading, setLoading] = useState(false);
   const [showAddEquipmentForm, setShowAddEquipmentForm] = useState(false);                   
   const [equipmentForm, setEquipmentForm] = useState({
@@ -44,15 +52,12 @@ const AdminDashboard = () => {
     setLoading(true);
     try {
       
-      const [usersRes, equipmentRes, bookingsRes] = await Promise.all([
-        api.get("/users"),
-        api.get("/equipments"),
-        api.get("/bookings")
+      await Promise.all([
+        userList.reload(),
+        equipmentList.reload(),
+        bookingList.reload(),
+        loadSummary()
       ]);
-      
-      setUsers(usersRes.data || []);
-      setEquipment(equipmentRes.data || []);
-      setBookings(bookingsRes.data || []);
     } catch (error) {
       console.error("Error loading dashboard data:", error);
     } finally {
@@ -60,6 +65,19 @@ const AdminDashboard = () => {
     }
   };
 
+  const loadSummary = async () => {
+    try {
+      const [countsRes, totalsRes] = await Promise.all([
+        api.get("/users/counts"),
+        api.get("/analytics/global")
+      ]);
+      setRoleCounts(countsRes.data || {});
+      setBookingTotals(totalsRes.data || null);
+    } catch (error) {
+      console.error("Error loading dashboard totals:", error);
+    }
+  };
+
   const handleLogout = () => {
     localStorage.clear();
     navigate("/login");
@@ -70,6 +88,7 @@ const AdminDashboard = () => {
       try {
         await api.delete(`/users/${userId}`);
         setUsers(users.filter(user => user.id !== userId));
+        loadSummary();
         alert("✅ User deleted successfully");
       } catch (error) {
         alert("❌ Error deleting user: " + (error.response?.data?.message || error.message));
@@ -111,10 +130,11 @@ const AdminDashboard = () => {
 
   const saveEditUser = async (userId) => {
     try {
-      await api.put(`/users/${userId}`, editUserForm);
-      // Refresh users list
-      const usersRes = await api.get("/users");
-      setUsers(usersRes.data || []);
+      const response = await api.put(`/users/${userId}`, editUserForm);
+      // Update the row in place instead of reloading the list
+      const updated = response.data && typeof response.data === "object" ? response.data : editUserForm;
+      setUsers(users.map(user => user.id === userId ? { ...user, ...updated } : user));
+      loadSummary();
       setEditingUser(null);
       setEditUserForm({});
       alert("✅ User updated successfully");
@@ -151,10 +171,10 @@ const AdminDashboard = () => {
         image: editEquipmentForm.image
       };
       
-      await api.put(`/equipments/${equipmentId}?userId=${userId}&farmerId=${farmerId}`, updateData);
+      const response = await api.put(`/equipments/${equipmentId}?userId=${userId}&farmerId=${farmerId}`, updateData);
       
-      const equipmentRes = await api.get("/equipments");
-      setEquipment(equipmentRes.data || []);
+      const updated = response.data && typeof response.data === "object" ? response.data : updateData;
+      setEquipment(equipment.map(eq => eq.id === equipmentId ? { ...eq, ...updated } : eq));
       setEditingEquipment(null);
       setEditEquipmentForm({});
       alert("✅ Equipment updated successfully");
@@ -180,9 +200,10 @@ const AdminDashboard = () => {
       
       const response = await api.post(`/equipments/add/${farmerId}?userId=${userId}`, equipmentData);
       
-      
-      const equipmentRes = await api.get("/equipments");
-      setEquipment(equipmentRes.data || []);
+      // New rows sort last by id: show it now if the last page is already loaded
+      if (!equipmentList.hasMore && response.data && response.data.id) {
+        setEquipment([...equipment, response.data]);
+      }
       
       
       setEquipmentForm({ name: "", description: "", price: "", image: "" });
@@ -204,21 +225,34 @@ const AdminDashboard = () => {
   };
 
 
-  const totalRenters = users.filter(u => u.role === "RENTER").length;
-  const avgBookingsPerRenter = totalRenters > 0 ? (bookings.length / totalRenters).toFixed(1) : 0;
+  const totalUsers = Object.values(roleCounts).reduce((sum, count) => sum + count, 0);
+  const totalRenters = roleCounts.RENTER || 0;
+  const totalBookings = bookingTotals?.totalBookings || 0;
+  const pendingBookings = bookingTotals?.pendingBookings || 0;
+  const confirmedBookings = bookingTotals?.confirmedBookings || 0;
+  const cancelledBookings = bookingTotals?.cancelledBookings || 0;
+  const avgBookingsPerRenter = totalRenters > 0 ? (totalBookings / totalRenters).toFixed(1) : 0;
 
   const userData = [
-    { name: "Admins", value: users.filter(u => u.role === "ADMIN").length },                             
-    { name: "Owners", value: users.filter(u => u.role === "OWNER").length },
-    { name: "Renters", value: users.filter(u => u.role === "RENTER").length }
+    { name: "Admins", value: roleCounts.ADMIN || 0 },                             
+    { name: "Owners", value: roleCounts.OWNER || 0 },
+    { name: "Renters", value: totalRenters }
   ].filter(d => d.value > 0);
 
   const bookingStatusData = [
-    { name: "Pending", value: bookings.filter(b => b.status?.toUpperCase() === "PENDING").length },
-    { name: "Confirmed", value: bookings.filter(b => b.status?.toUpperCase() === "CONFIRMED").length },
-    { name: "Cancelled", value: bookings.filter(b => b.status?.toUpperCase() === "CANCELLED").length }
+    { name: "Pending", value: pendingBookings },
+    { name: "Confirmed", value: confirmedBookings },
+    { name: "Cancelled", value: cancelledBookings }
   ].filter(d => d.value > 0);               
 
+  const renderLoadMore = (list) => list.hasMore && (
+    <div style={styles.loadMoreRow}>
+      <button style={styles.loadMoreButton} onClick={list.loadMore} disabled={list.loading}>
+        {list.loading ? "Loading..." : "Load more"}
+      </button>
+    </div>
+  );
+
   const COLORS = ["#0088FE", "#00C49F", "#FFBB28", "#FF8042", "#8884d8"];
 
   const viewBookingDetails = (booking) => {
@@ -248,6 +282,7 @@ Created: ${booking.createdAt ? new Date(booking.createdAt).toLocaleString() : "N
             ? { ...booking, status: "CANCELLED" }
             : booking
         ));
+        loadSummary();
         
         alert("✅ Booking cancelled successfully");
       } catch (error) {
@@ -262,21 +297,21 @@ Created: ${booking.createdAt ? new Date(booking.createdAt).toLocaleString() : "N
       <div style={styles.overviewGrid}>
         <div style={styles.statCard}>
           <h3>👥 Total Users</h3>
-          <div style={styles.statNumber}>{users.length}</div>
+          <div style={styles.statNumber}>{totalUsers}</div>
           <div style={styles.statBreakdown}>
-            <div>Admins: {users.filter(u => u.role === "ADMIN").length}</div>
-            <div>Owners: {users.filter(u => u.role === "OWNER").length}</div>
-            <div>Renters: {users.filter(u => u.role === "RENTER").length}</div>
+            <div>Admins: {roleCounts.ADMIN || 0}</div>
+            <div>Owners: {roleCounts.OWNER || 0}</div>
+            <div>Renters: {totalRenters}</div>
           </div>
         </div>
         
         <div style={styles.statCard}>
           <h3>📋 Total Bookings</h3>
-          <div style={styles.statNumber}>{bookings.length}</div>
+          <div style={styles.statNumber}>{totalBookings}</div>
           <div style={styles.statBreakdown}>
-            <div>Pending: {bookings.filter(b => b.status?.toUpperCase() === "PENDING").length}</div>
-            <div>Confirmed: {bookings.filter(b => b.status?.toUpperCase() === "CONFIRMED").length}</div>
-            <div>Cancelled: {bookings.filter(b => b.status?.toUpperCase() === "CANCELLED").length}</div>
+            <div>Pending: {pendingBookings}</div>
+            <div>Confirmed: {confirmedBookings}</div>
+            <div>Cancelled: {cancelledBookings}</div>
             <div>Avg Bookings/User: {avgBookingsPerRenter}</div>
           </div>
         </div>
@@ -473,6 +508,7 @@ Created: ${booking.createdAt ? new Date(booking.createdAt).toLocaleString() : "N
           )
         ))}
       </div>
+      {renderLoadMore(userList)}
     </div>
   );
 
@@ -569,6 +605,7 @@ Created: ${booking.createdAt ? new Date(booking.createdAt).toLocaleString() : "N
           )
         ))}
       </div>
+      {renderLoadMore(equipmentList)}
     </div>
   );
 
@@ -578,10 +615,10 @@ Created: ${booking.createdAt ? new Date(booking.createdAt).toLocaleString() : "N
         <h3>📋 Booking Management</h3>
         <div style={styles.bookingStats}>
           <span style={styles.statBadge}>
-            Pending: {bookings.filter(b => b.status === "PENDING").length}
+            Pending: {pendingBookings}
           </span>
           <span style={styles.statBadge}>
-            Confirmed: {bookings.filter(b => b.status === "CONFIRMED").length}
+            Confirmed: {confirmedBookings}
           </span>
         </div>
       </div>
@@ -645,6 +682,7 @@ Created: ${booking.createdAt ? new Date(booking.createdAt).toLocaleString() : "N
           </div>
         ))}
       </div>
+      {renderLoadMore(bookingList)}
     </div>
   );
 
@@ -913,6 +951,19 @@ const styles = {
     borderRadius: "4px",
     cursor: "pointer",
   },
+  loadMoreRow: {
+    padding: "15px",
+    textAlign: "center",
+    borderTop: "1px solid #ddd",
+  },
+  loadMoreButton: {
+    backgroundColor: "#3498db",
+    color: "white",
+    border: "none",
+    padding: "8px 20px",
+    borderRadius: "4px",
+    cursor: "pointer",
+  },
   bookingStats: {
     display: "flex",
     gap: "10px",
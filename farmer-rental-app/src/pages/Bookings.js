@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from "react";
 import { useNavigate, useSearchParams } from "react-router-dom";
 import api from "../api/axiosInstance";
+import { fetchPage } from "../api/fetchPage";
 import { useI18n } from "../i18n/i18n";
 import LanguageSwitcher from "../components/LanguageSwitcher";
 
@@ -10,6 +11,8 @@ export default function Bookings() {
   const initialEquipmentId = searchParams.get("equipmentId") || "";
   
   const [equipments, setEquipments] = useState([]);
+  // Set when the list came from the paged /equipments fallback and more pages exist
+  const [equipmentCursor, setEquipmentCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
   const [locationText, setLocationText] = useState("");
@@ -116,6 +119,7 @@ export default function Bookings() {
     // Clear equipment when user changes
     console.log("🧹 Clearing equipment for fresh fetch");
     setEquipments([]);
+    setEquipmentCursor(null);
     setError("");
 
     // Fetch equipment available for rent (excluding user's own equipment)
@@ -142,8 +146,10 @@ export default function Bookings() {
       
       // Fallback: fetch all equipment and filter manually
       try {
-        const response = await api.get(`/equipments`);
+        // One page at a time; further pages load on demand
+        const response = await fetchPage("/equipments");
         const allEquipment = response.data || [];
+        setEquipmentCursor(response.nextCursor);
         
         if (allEquipment.length === 0) {
           setError("No equipment available to rent right now. Please try again later.");
@@ -182,6 +188,21 @@ export default function Bookings() {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [loginTimestamp, navigate]);
 
+  const loadMoreEquipment = async () => {
+    if (!equipmentCursor) return;
+    try {
+      const page = await fetchPage("/equipments", { afterId: equipmentCursor });
+      const farmerId = localStorage.getItem("farmerId");
+      const rows = farmerId
+        ? page.data.filter(eq => (eq.owner?.id || eq.ownerId) !== parseInt(farmerId, 10))
+        : page.data;
+      setEquipments(prev => [...prev, ...rows]);
+      setEquipmentCursor(page.nextCursor);
+    } catch (err) {
+      console.error("❌ Error fetching more equipment:", err);
+    }
+  };
+
   const handleRequestRental = (e) => {
     e.preventDefault();
 
@@ -266,6 +287,11 @@ export default function Bookings() {
                   </option>
                 ))}
               </select>
+              {equipmentCursor && (
+                <button type="button" onClick={loadMoreEquipment} style={{ marginTop: 8 }}>
+                  Load more equipment
+                </button>
+              )}
             </div>
 
             <div style={styles.section}>
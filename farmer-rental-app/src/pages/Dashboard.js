@@ -4,6 +4,7 @@ import { useI18n } from "../i18n/i18n";
 import LanguageSwitcher from "../components/LanguageSwitcher";
 import NotificationSystem from "../components/NotificationSystem";
 import api from "../api/axiosInstance";
+import { fetchPage } from "../api/fetchPage";
 import { isAdminUser, checkAdminStatus } from "../utils/adminUtils";
 
 export default function Dashboard() {
@@ -24,6 +25,8 @@ export default function Dashboard() {
   const [userRole, setUserRole] = useState(null);
   const [loginTimestamp, setLoginTimestamp] = useState(localStorage.getItem("loginTimestamp"));
   const [equipments, setEquipments] = useState([]);
+  // Set while the list is the paged /equipments fallback; "Load more" fetches the next page
+  const [equipmentCursor, setEquipmentCursor] = useState(null);
 
   // Fetch pending booking invitations for current user (owner view)
   const fetchPendingBookings = async () => {
@@ -202,6 +205,17 @@ export default function Dashboard() {
     }
   };
 
+  const loadMoreEquipments = async () => {
+    if (!equipmentCursor) return;
+    try {
+      const page = await fetchPage("/equipments", { afterId: equipmentCursor });
+      setEquipments(prev => [...prev, ...page.data]);
+      setEquipmentCursor(page.nextCursor);
+    } catch (error) {
+      console.error("Error fetching more equipments:", error);
+    }
+  };
+
   // Fetch equipments based on user role
   const fetchEquipments = async () => {
     try {
@@ -209,26 +223,20 @@ export default function Dashboard() {
       const role = localStorage.getItem("userRole");
       
       let response;
-      if (role === "ADMIN" || role === "OWNER") {
-        // Admin and owners see their own equipment for management
-        if (farmerId) {
-          response = await api.get(`/equipments/my/${farmerId}`);
-        } else {
-          // Fallback to all equipment if no farmerId
-          response = await api.get("/equipments");
-        }
+      if (farmerId) {
+        // Admin and owners see their own equipment for management,
+        // renters see other farmers' equipment for renting
+        response = (role === "ADMIN" || role === "OWNER")
+          ? await api.get(`/equipments/my/${farmerId}`)
+          : await api.get(`/equipments/others/${farmerId}`);
       } else {
-        // Renters see other farmers' equipment for renting
-        if (farmerId) {
-          response = await api.get(`/equipments/others/${farmerId}`);
-        } else {
-          // If no farmerId (new user), show all equipment
-          response = await api.get("/equipments");
-        }
+        // No farmerId (new user): first page of all equipment
+        response = await fetchPage("/equipments");
       }
       
       if (response.data && Array.isArray(response.data)) {
         setEquipments(response.data);
+        setEquipmentCursor(response.nextCursor || null);
       }
     } catch (error) {
       console.error("Error fetching equipments:", error);
@@ -465,7 +473,15 @@ export default function Dashboard() {
       console.error("Error accepting booking:", error);
       console.error("Error response:", error.response);
       console.error("Error response data:", error.response?.data);
-      
+
+      // 409: another owner accepted this booking first
+      if (error.response?.status === 409) {
+        setPendingBookings(prev => prev.filter(booking => booking.id !== bookingId));
+        alert("ℹ️ This booking was already accepted by another owner.");
+        fetchPendingBookings();
+        return;
+      }
+
       // Handle different error response formats
       let errorMsg = "Failed to accept booking";
       if (error.response?.data) {
@@ -1497,6 +1513,11 @@ export default function Dashboard() {
                   </div>
                 ))}
               </div>
+              {equipmentCursor && (
+                <button style={styles.primaryButton} onClick={loadMoreEquipments}>
+                  Load more
+                </button>
+              )}
             </div>
           </section>
         )}
@@ -1,5 +1,6 @@
 import React, { useEffect, useState } from "react";
 import api from "../api/axiosInstance";
+import { fetchPage } from "../api/fetchPage";
 import { useI18n } from "../i18n/i18n";
 import LanguageSwitcher from "../components/LanguageSwitcher";
 import { useNavigate } from "react-router-dom";
@@ -8,6 +9,9 @@ export default function EquipmentsList() {
   const { t } = useI18n();
   const navigate = useNavigate();
   const [equipments, setEquipments] = useState([]);
+  // Set while showing the paged /equipments list; "Load more" fetches the page after it
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const farmerId = localStorage.getItem("farmerId");
   const userId = localStorage.getItem("userId");
 
@@ -28,9 +32,11 @@ export default function EquipmentsList() {
         if (farmerId) {
           console.log("✅ Fetching equipment for farmerId:", farmerId);
           response = await api.get(`/equipments/others/${farmerId}`);
+          setNextCursor(null);
         } else {
-          console.log("⚠️ No farmerId, fetching all equipment");
-          response = await api.get("/equipments");
+          console.log("⚠️ No farmerId, fetching first page of all equipment");
+          response = await fetchPage("/equipments");
+          setNextCursor(response.nextCursor);
         }
         setEquipments(response.data);
         console.log("✅ Equipment fetched:", response.data.length, "items");
@@ -38,8 +44,9 @@ export default function EquipmentsList() {
         console.error("❌ Error fetching equipments:", err);
         // Fallback to all equipment
         try {
-          const fallbackResponse = await api.get("/equipments");
+          const fallbackResponse = await fetchPage("/equipments");
           setEquipments(fallbackResponse.data);
+          setNextCursor(fallbackResponse.nextCursor);
         } catch (fallbackErr) {
           console.error("❌ Fallback fetch also failed:", fallbackErr);
         }
@@ -49,6 +56,20 @@ export default function EquipmentsList() {
     fetchEquipments();
   }, [farmerId, userId, navigate]);
 
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const page = await fetchPage("/equipments", { afterId: nextCursor });
+      setEquipments((previous) => [...previous, ...page.data]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      console.error("❌ Error fetching more equipment:", err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   return (
     <div>
       <div style={{ display: "flex", justifyContent: "space-between", alignItems: "center" }}>
@@ -111,6 +132,13 @@ export default function EquipmentsList() {
           </div>
         ))}
       </div>
+      {nextCursor && (
+        <div style={{ textAlign: "center", margin: "20px 0" }}>
+          <button onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
 import api from "../api/axiosInstance";
+import { subscribeToBookingEvents } from "../api/bookingEvents";
 import { useI18n } from "../i18n/i18n";
 import LanguageSwitcher from "../components/LanguageSwitcher";
 
@@ -58,9 +59,33 @@ export default function MyBookings() {
     setBookings([]);
     
     fetchData();
-    // Auto-refresh every 30 seconds
-    const interval = setInterval(fetchData, 30000);
-    return () => clearInterval(interval);
+
+    // Refresh on pushed booking events; fall back to 30-second polling while the stream is down
+    let interval = null;
+    const startPolling = () => {
+      if (!interval) interval = setInterval(fetchData, 30000);
+    };
+    const stopPolling = () => {
+      if (interval) {
+        clearInterval(interval);
+        interval = null;
+      }
+    };
+
+    startPolling();
+    const unsubscribe = subscribeToBookingEvents(localStorage.getItem("farmerId") || localStorage.getItem("userId"), {
+      onEvent: fetchData,
+      onOpen: () => {
+        stopPolling();
+        fetchData();
+      },
+      onError: startPolling,
+    });
+
+    return () => {
+      stopPolling();
+      unsubscribe();
+    };
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [loginTimestamp]);
 
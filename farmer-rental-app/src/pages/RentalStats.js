@@ -1,10 +1,50 @@
-import React from "react";
+import React, { useEffect, useState } from "react";
 import "./RentalStats.css";
 import { useI18n } from "../i18n/i18n";
 import LanguageSwitcher from "../components/LanguageSwitcher";
+import api from "../api/axiosInstance";
+import {
+  ResponsiveContainer, BarChart, Bar, LineChart, Line,
+  XAxis, YAxis, CartesianGrid, Tooltip, Legend
+} from "recharts";
+
+const GRANULARITIES = ["DAY", "WEEK", "MONTH"];
 
 function RentalStats() {
   const { t } = useI18n();
+  const [granularity, setGranularity] = useState("DAY");
+  const [totals, setTotals] = useState(null);
+  const [points, setPoints] = useState([]);
+
+  useEffect(() => {
+    const farmerId = localStorage.getItem("farmerId");
+    if (!farmerId) return;
+
+    // Totals and the series both come from pre-aggregated rollups, not raw booking rows
+    const fetchStats = async () => {
+      try {
+        const [totalsResponse, seriesResponse] = await Promise.all([
+          api.get(`/analytics/farmer/${farmerId}`),
+          api.get("/analytics/series", { params: { granularity, farmerId } }),
+        ]);
+        setTotals(totalsResponse.data);
+        setPoints(
+          seriesResponse.data.points.map((p) => ({
+            period: p.periodStart,
+            bookings: p.totalBookings,
+            confirmed: p.bookingsByStatus.CONFIRMED || 0,
+            revenue: Number(p.revenue),
+            confirmMinutes: p.averageConfirmationTimeMinutes,
+          }))
+        );
+      } catch (error) {
+        console.error("Error fetching rental stats:", error);
+      }
+    };
+
+    fetchStats();
+  }, [granularity]);
+
   return (
     <div className="stats-container">
       <div style={{ display: "flex", justifyContent: "space-between", alignItems: "center" }}>
@@ -13,24 +53,71 @@ function RentalStats() {
       </div>
       <div className="stats-grid">
         <div className="stat-card">
-          <h3>10</h3>
+          <h3>{totals ? totals.totalBookings : "-"}</h3>
           <p>Total Bookings</p>
         </div>
         <div className="stat-card">
-          <h3>6</h3>
-          <p>Active Rentals</p>
+          <h3>{totals ? totals.confirmedBookings : "-"}</h3>
+          <p>Confirmed Bookings</p>
         </div>
         <div className="stat-card">
-          <h3>₹12,500</h3>
+          <h3>{totals ? `₹${Number(totals.confirmedRevenue).toLocaleString("en-IN")}` : "-"}</h3>
           <p>Total Earnings</p>
         </div>
         <div className="stat-card">
-          <h3>4.8⭐</h3>
-          <p>Average Rating</p>
+          <h3>
+            {totals && totals.averageConfirmationTimeMinutes != null
+              ? `${Math.round(totals.averageConfirmationTimeMinutes)} min`
+              : "-"}
+          </h3>
+          <p>Avg. Time to Confirm</p>
         </div>
       </div>
+
+      <div style={{ margin: "20px 0" }}>
+        {GRANULARITIES.map((g) => (
+          <button
+            key={g}
+            onClick={() => setGranularity(g)}
+            style={{ marginRight: 8, fontWeight: g === granularity ? "bold" : "normal" }}
+          >
+            {g.charAt(0) + g.slice(1).toLowerCase()}
+          </button>
+        ))}
+      </div>
+
+      <h4>Bookings</h4>
+      <div style={{ width: "100%", height: 250 }}>
+        <ResponsiveContainer>
+          <BarChart data={points}>
+            <CartesianGrid strokeDasharray="3 3" />
+            <XAxis dataKey="period" tick={{ fontSize: 10 }} />
+            <YAxis allowDecimals={false} />
+            <Tooltip />
+            <Legend />
+            <Bar dataKey="bookings" name="All" fill="#3498db" />
+            <Bar dataKey="confirmed" name="Confirmed" fill="#2ecc71" />
+          </BarChart>
+        </ResponsiveContainer>
+      </div>
+
+      <h4>Revenue (₹) and Time to Confirm (min)</h4>
+      <div style={{ width: "100%", height: 250 }}>
+        <ResponsiveContainer>
+          <LineChart data={points}>
+            <CartesianGrid strokeDasharray="3 3" />
+            <XAxis dataKey="period" tick={{ fontSize: 10 }} />
+            <YAxis yAxisId="revenue" />
+            <YAxis yAxisId="minutes" orientation="right" />
+            <Tooltip />
+            <Legend />
+            <Line yAxisId="revenue" type="monotone" dataKey="revenue" name="Revenue" stroke="#e67e22" dot={false} />
+            <Line yAxisId="minutes" type="monotone" dataKey="confirmMinutes" name="Time to confirm" stroke="#9b59b6" dot={false} connectNulls />
+          </LineChart>
+        </ResponsiveContainer>
+      </div>
     </div>
   );
 }
 
-export default RentalStats;
\ No newline at end of file
+export default RentalStats;